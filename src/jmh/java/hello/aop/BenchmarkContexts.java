@@ -0,0 +1,37 @@
+package hello.aop;
+
+import hello.aop.support.WovenAspectBeanFactoryPostProcessor;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * 벤치마크용 최소 스프링 컨테이너
+ * - 스프링 부트 전체를 띄우지 않고 필요한 빈과 애스펙트만 등록함
+ * - proxyTargetClass 는 spring.aop.proxy-target-class 설정과 같은 역할을 함
+ * - createWoven 은 컴파일 타임 위빙(-PaopMode=ctw) 용으로 자동 프록시 생성기 없이 애스펙트 빈을 aspectOf() 인스턴스로 등록함
+ */
+public final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    public static AnnotationConfigApplicationContext create(boolean proxyTargetClass, Class<?>[] aspectClasses, Class<?>... componentClasses) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        AopConfigUtils.registerAspectJAnnotationAutoProxyCreatorIfNecessary(context);
+        if (proxyTargetClass) {
+            AopConfigUtils.forceAutoProxyCreatorToUseClassProxying(context);
+        }
+        context.register(aspectClasses);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+
+    public static AnnotationConfigApplicationContext createWoven(Class<?>... componentClasses) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(WovenAspectBeanFactoryPostProcessor.class);
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+}
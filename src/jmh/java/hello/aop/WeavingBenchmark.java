@@ -0,0 +1,87 @@
+package hello.aop;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.TimedAspect;
+import hello.aop.store.MemoryOrderStore;
+import hello.aop.store.OrderStoreConfig;
+import hello.aop.store.OrderTransactionManager;
+import hello.aop.support.WovenAspectBeanFactoryPostProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스프링 프록시 방식과 컴파일 타임 위빙 방식의 호출 비용, 시작 시간을 비교함
+ * - 같은 애스펙트(AspectV5Order.LogAspect, TxAspect, TimedAspect)를 OrderService, OrderRepository 에 적용함
+ * - 위빙 여부는 빌드할 때 정해지므로 같은 벤치마크를 두 번 실행해서 결과를 비교함
+ *   ./gradlew jmh -PjmhIncludes=WeavingBenchmark              => proxy : 컨테이너가 CGLIB 프록시를 만듦
+ *   ./gradlew jmh -PjmhIncludes=WeavingBenchmark -PaopMode=ctw => woven : 대상 클래스 바이트코드에 어드바이스 호출이 들어가 있어서 new 로 만든 객체도 어드바이스가 적용됨
+ * - orderItem : 호출 한 번의 비용 (ns/op, gc.alloc.rate.norm)
+ * - startup : 컨테이너를 띄우는 시간 (프록시 방식은 포인트컷 매칭과 프록시 클래스 생성 비용이 포함됨)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeavingBenchmark {
+
+    private static final Class<?>[] ASPECTS = {AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, TimedAspect.class};
+
+    AnnotationConfigApplicationContext context;
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        if (isWoven()) {
+            orderService = new OrderService(new OrderRepository(new OrderTransactionManager(new MemoryOrderStore())));
+        } else {
+            context = BenchmarkContexts.create(true, ASPECTS, OrderStoreConfig.class, OrderRepository.class, OrderService.class);
+            orderService = context.getBean(OrderService.class);
+        }
+        System.out.println("[" + (isWoven() ? "woven" : "proxy") + "] orderService=" + orderService.getClass().getName());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public OrderService startup() {
+        AnnotationConfigApplicationContext startupContext = isWoven()
+                ? BenchmarkContexts.createWoven(concat(ASPECTS, OrderStoreConfig.class, OrderRepository.class, OrderService.class))
+                : BenchmarkContexts.create(true, ASPECTS, OrderStoreConfig.class, OrderRepository.class, OrderService.class);
+        try {
+            return startupContext.getBean(OrderService.class);
+        } finally {
+            startupContext.close();
+        }
+    }
+
+    private static boolean isWoven() {
+        return WovenAspectBeanFactoryPostProcessor.isWoven(AspectV5Order.TxAspect.class);
+    }
+
+    private static Class<?>[] concat(Class<?>[] first, Class<?>... second) {
+        Class<?>[] result = new Class<?>[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
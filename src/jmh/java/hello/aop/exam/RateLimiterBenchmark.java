@@ -0,0 +1,58 @@
+package hello.aop.exam;
+
+import hello.aop.exam.aop.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8개 스레드가 동시에 RateLimiter 에서 허용을 받는 비용을 측정함
+ * - single : 모든 스레드가 버킷 하나를 나눠 씀 (같은 tat 를 두고 CAS 경합)
+ * - keyed : 100만 개의 키 중 하나를 골라서 받음 (맵 조회, 버킷 생성, 1초마다 빈 버킷 정리)
+ * - permitsPerSecond=1000 : 대부분 거절됨, 거절은 CAS 없이 tat 를 읽기만 하므로 경합이 늘지 않아야 함
+ * - permitsPerSecond=1000000000 : 모두 허용됨, 호출마다 CAS 가 성공해야 함
+ * - 실행이 끝나면 허용, 거절, 정리된 버킷 수를 출력함
+ * (실행) ./gradlew jmh -PjmhIncludes=RateLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 1_000_000;
+
+    @Param({"1000", "1000000000"})
+    double permitsPerSecond;
+
+    RateLimiter limiter;
+    Integer[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(permitsPerSecond, 100, TimeUnit.SECONDS.toNanos(1), 2 * KEYS);
+        keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("[permitsPerSecond=%.0f] %s%n", permitsPerSecond, limiter);
+    }
+
+    @Benchmark
+    public boolean single() {
+        return limiter.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean keyed() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+}
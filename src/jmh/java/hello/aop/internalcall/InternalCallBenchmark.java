@@ -0,0 +1,67 @@
+package hello.aop.internalcall;
+
+import hello.aop.BenchmarkContexts;
+import hello.aop.internalcall.aop.CallLogAspect;
+import hello.aop.support.SelfInjectionPostProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내부 호출 문제를 해결하는 방법별로 external() 호출 한 번의 비용을 측정함 (external, internal 모두 CallLogAspect 적용)
+ * - V1 : setter 로 자기 자신을 주입 (순환 참조 허용 필요)
+ * - V2 : 호출할 때마다 ObjectProvider.getObject() 로 컨테이너에서 조회
+ * - V3 : InternalService 로 분리
+ * - V4 : @Self 로 프록시 생성 후 한 번만 주입
+ * (실행) ./gradlew jmh -PjmhIncludes=InternalCallBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternalCallBenchmark {
+
+    @Param({"V1", "V2", "V3", "V4"})
+    String version;
+
+    AnnotationConfigApplicationContext context;
+    Runnable external;
+
+    @Setup
+    public void setUp() {
+        Class<?>[] aspects = {CallLogAspect.class};
+        switch (version) {
+            case "V1":
+                context = BenchmarkContexts.create(true, aspects, CallServiceV1.class);
+                external = context.getBean(CallServiceV1.class)::external;
+                break;
+            case "V2":
+                context = BenchmarkContexts.create(true, aspects, CallServiceV2.class);
+                external = context.getBean(CallServiceV2.class)::external;
+                break;
+            case "V3":
+                context = BenchmarkContexts.create(true, aspects, InternalService.class, CallServiceV3.class);
+                external = context.getBean(CallServiceV3.class)::external;
+                break;
+            case "V4":
+                context = BenchmarkContexts.create(true, aspects, SelfInjectionPostProcessor.class, CallServiceV4.class);
+                external = context.getBean(CallServiceV4.class)::external;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown version: " + version);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void external() {
+        external.run();
+    }
+}
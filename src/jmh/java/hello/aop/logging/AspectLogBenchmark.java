@@ -0,0 +1,52 @@
+package hello.aop.logging;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애스펙트 로그 한 줄이 호출 스레드에 주는 지연 시간을 비교함
+ * - SYNC : 기존 방식, 호출 스레드에서 바로 log.info
+ * - DROP, BLOCK : AsyncLogSink 에 넣고 백그라운드 스레드가 출력
+ * (참고) 이 로거만 INFO 로 열어서 build/jmh-aspect-log.log 파일로 출력함 (src/jmh/resources/logback.xml)
+ * (실행) ./gradlew jmh -PjmhIncludes=AspectLogBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AspectLogBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(AspectLogBenchmark.class);
+
+    @Param({"SYNC", "DROP", "BLOCK"})
+    String mode;
+
+    AsyncLogSink sink;
+
+    @Setup
+    public void setUp() {
+        if (!"SYNC".equals(mode)) {
+            sink = new AsyncLogSink(8192, 256, OverflowPolicy.valueOf(mode));
+            sink.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (sink != null) {
+            sink.stop();
+            System.out.println("[" + mode + "] " + sink);
+        }
+    }
+
+    @Benchmark
+    public void logAdvice() {
+        AspectLog.info(log, "[log] {} itemId={}", "void hello.aop.order.OrderService.orderItem(String)", "itemA");
+    }
+}
@@ -0,0 +1,88 @@
+package hello.aop.member;
+
+import hello.aop.BenchmarkContexts;
+import hello.aop.member.annotation.ClassAop;
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.support.AdviceMetadata;
+import hello.aop.support.AdviceMetadataCache;
+import hello.aop.support.AdviceMetadataPostProcessor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberServiceImpl.hello(@MethodAop, @ClassAop) 에 같은 일을 하는 어드바이스를 두 방식으로 적용해서 비교함
+ * - BINDING : ParameterTest 처럼 @annotation(methodAop), @target(classAop) 로 애노테이션을 바인딩하고 getSignature().toString() 을 사용
+ * - METADATA : AdviceMetadataCache 에서 미리 계산한 애노테이션과 시그니처 문자열을 사용
+ * (실행) ./gradlew jmh -PjmhIncludes=AdviceMetadataBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceMetadataBenchmark {
+
+    @Param({"BINDING", "METADATA"})
+    String mode;
+
+    @Param({"false", "true"})
+    boolean proxyTargetClass;
+
+    AnnotationConfigApplicationContext context;
+    MemberService memberService;
+
+    @Setup
+    public void setUp() {
+        Class<?> aspect = "BINDING".equals(mode) ? BindingAspect.class : MetadataAspect.class;
+        context = BenchmarkContexts.create(proxyTargetClass, new Class<?>[]{aspect},
+                AdviceMetadataPostProcessor.class, MemberServiceImpl.class);
+        memberService = context.getBean(MemberService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String hello() {
+        return memberService.hello("helloA");
+    }
+
+    @Aspect
+    public static class BindingAspect {
+        @Around("execution(* hello.aop.member..*.*(..)) && @annotation(methodAop) && @target(classAop)")
+        public Object doAdvice(ProceedingJoinPoint joinPoint, MethodAop methodAop, ClassAop classAop) throws Throwable {
+            consume(joinPoint.getSignature().toString(), methodAop.value(), classAop);
+            return joinPoint.proceed();
+        }
+    }
+
+    @Aspect
+    public static class MetadataAspect {
+        @Around("execution(* hello.aop.member..*.*(..))")
+        public Object doAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
+            AdviceMetadata metadata = AdviceMetadataCache.get(joinPoint);
+            MethodAop methodAop = metadata.getAnnotation(MethodAop.class);
+            ClassAop classAop = metadata.getClassAnnotation(ClassAop.class);
+            if (methodAop != null && classAop != null) {
+                consume(metadata.getSignature(), methodAop.value(), classAop);
+            }
+            return joinPoint.proceed();
+        }
+    }
+
+    static volatile Object sink;
+
+    static void consume(String signature, String value, ClassAop classAop) {
+        if (signature.length() + value.length() < 0) {
+            sink = classAop;
+        }
+    }
+}
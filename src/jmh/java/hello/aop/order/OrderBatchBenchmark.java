@@ -0,0 +1,66 @@
+package hello.aop.order;
+
+import hello.aop.BenchmarkContexts;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.TimedAspect;
+import hello.aop.order.aop.TransactionAspect;
+import hello.aop.store.OrderStoreConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 하나당 비용 비교 (ns/op 는 주문 하나 기준)
+ * - single : orderItem 을 BATCH_SIZE 번 호출 (주문마다 어드바이스 체인과 커밋)
+ * - batch : orderItems 를 한 번 호출 (배치마다 어드바이스 체인과 커밋 한 번)
+ * - 애스펙트 : AspectV5Order(LogAspect, TxAspect) + TimedAspect + TransactionAspect
+ * (실행) ./gradlew jmh -PjmhIncludes=OrderBatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBatchBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    AnnotationConfigApplicationContext context;
+    OrderService orderService;
+    List<String> itemIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.create(true,
+                new Class<?>[]{AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, TimedAspect.class, TransactionAspect.class},
+                OrderStoreConfig.class, OrderRepository.class, OrderService.class);
+        orderService = context.getBean(OrderService.class);
+        itemIds = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            itemIds.add("item" + (i % 10));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void single() {
+        for (String itemId : itemIds) {
+            orderService.orderItem(itemId);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public OrderBatchResult batch() {
+        return orderService.orderItems(itemIds);
+    }
+}
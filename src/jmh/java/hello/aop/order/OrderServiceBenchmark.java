@@ -0,0 +1,74 @@
+package hello.aop.order;
+
+import hello.aop.BenchmarkContexts;
+import hello.aop.order.aop.*;
+import hello.aop.store.MemoryOrderStore;
+import hello.aop.store.OrderStoreConfig;
+import hello.aop.store.OrderTransactionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.orderItem 호출 한 번에 어드바이스 체인이 추가하는 비용을 측정함
+ * - NONE : 프록시 없이 대상 객체를 직접 호출 (기준값)
+ * - V1 ~ V6 : AspectV1 ~ AspectV6Advice 를 각각 적용 (V5 는 LogAspect + TxAspect)
+ * - proxyTargetClass : false = JDK 동적 프록시, true = CGLIB
+ *
+ * (참고) OrderService, OrderRepository 는 인터페이스가 없어서 proxyTargetClass=false 여도 CGLIB 프록시가 만들어짐
+ *       실제로 만들어진 프록시 클래스는 setup 시점에 출력함
+ * (실행) ./gradlew jmh -PjmhIncludes=OrderServiceBenchmark  => ns/op 와 gc 프로파일러의 gc.alloc.rate.norm(B/op) 확인
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"NONE", "V1", "V2", "V3", "V4", "V5", "V6"})
+    String aspect;
+
+    @Param({"false", "true"})
+    boolean proxyTargetClass;
+
+    AnnotationConfigApplicationContext context;
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        if ("NONE".equals(aspect)) {
+            orderService = new OrderService(new OrderRepository(new OrderTransactionManager(new MemoryOrderStore())));
+            return;
+        }
+        context = BenchmarkContexts.create(proxyTargetClass, aspectClasses(aspect), OrderStoreConfig.class, OrderRepository.class, OrderService.class);
+        orderService = context.getBean(OrderService.class);
+        System.out.println("[" + aspect + "] orderService=" + orderService.getClass().getName());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    private static Class<?>[] aspectClasses(String aspect) {
+        switch (aspect) {
+            case "V1": return new Class<?>[]{AspectV1.class};
+            case "V2": return new Class<?>[]{AspectV2.class};
+            case "V3": return new Class<?>[]{AspectV3.class};
+            case "V4": return new Class<?>[]{AspectV4Pointcut.class};
+            case "V5": return new Class<?>[]{AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class};
+            case "V6": return new Class<?>[]{AspectV6Advice.class};
+            default: throw new IllegalArgumentException("unknown aspect: " + aspect);
+        }
+    }
+}
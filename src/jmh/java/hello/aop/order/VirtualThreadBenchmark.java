@@ -0,0 +1,83 @@
+package hello.aop.order;
+
+import hello.aop.BenchmarkContexts;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.TimedAspect;
+import hello.aop.store.OrderStoreConfig;
+import hello.aop.support.ThreadSupport;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10만 개의 동시 작업이 각각 OrderService.orderItem 을 호출하는 데 걸리는 시간을 측정함
+ * - 애스펙트 : AspectV5Order(LogAspect, TxAspect) + TimedAspect
+ * - virtual : 작업마다 가상 스레드 하나 (JDK 21 빌드에서만 실행 가능)
+ *   platform : CPU 수 x 4 개의 플랫폼 스레드 풀
+ * - blockMillis : 호출 전에 기다리는 시간 (I/O 대기를 흉내냄), 0 이면 순수하게 어드바이스 체인과 스레드 생성 비용만 측정함
+ * (실행) ./gradlew jmh -PjavaVersion=21 -PjmhIncludes=VirtualThreadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    static final int CALLS = 100_000;
+
+    @Param({"virtual", "platform"})
+    String threadType;
+
+    @Param({"0", "10"})
+    long blockMillis;
+
+    AnnotationConfigApplicationContext context;
+    OrderService orderService;
+    ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threadType) && !ThreadSupport.isVirtualThreadSupported()) {
+            throw new IllegalStateException("virtual threads require JDK 21 or later: ./gradlew jmh -PjavaVersion=21");
+        }
+        context = BenchmarkContexts.create(true,
+                new Class<?>[]{AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, TimedAspect.class},
+                OrderStoreConfig.class, OrderRepository.class, OrderService.class);
+        orderService = context.getBean(OrderService.class);
+        executor = "virtual".equals(threadType)
+                ? ThreadSupport.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public void orderItems() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            executor.execute(() -> {
+                try {
+                    if (blockMillis > 0) {
+                        Thread.sleep(blockMillis);
+                    }
+                    orderService.orderItem("itemA");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
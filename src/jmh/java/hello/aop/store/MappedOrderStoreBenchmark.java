@@ -0,0 +1,68 @@
+package hello.aop.store;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappedOrderStore 의 저장 처리량과 조회 지연 시간
+ * - save : 4개 스레드가 주문 하나짜리 커밋을 반복함, fsyncPolicy 별로 비교 (ALWAYS 는 그룹 커밋)
+ * - find : 상품 10만 개가 저장된 상태에서 임의의 상품의 마지막 주문을 조회함 (매핑된 영역을 복사하지 않고 읽음)
+ * (실행) ./gradlew jmh -PjmhIncludes=MappedOrderStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedOrderStoreBenchmark {
+
+    private static final int ITEMS = 100_000;
+
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    FsyncPolicy fsyncPolicy;
+
+    Path directory;
+    MappedOrderStore store;
+    List<String>[] orders;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-order-store-bench");
+        store = new MappedOrderStore(directory.resolve("orders.log"), 64 * 1024 * 1024, fsyncPolicy, 100);
+        orders = new List[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            orders[i] = List.of("item" + i);
+        }
+        for (List<String> order : orders) {
+            store.commit(order);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("[%s] size=%d forces=%d%n", fsyncPolicy, store.size(), store.getForces());
+        store.close();
+        Files.deleteIfExists(directory.resolve("orders.log"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void save() {
+        store.commit(orders[ThreadLocalRandom.current().nextInt(ITEMS)]);
+    }
+
+    @Benchmark
+    public long find() {
+        return store.find(orders[ThreadLocalRandom.current().nextInt(ITEMS)].get(0)).getSequence();
+    }
+}
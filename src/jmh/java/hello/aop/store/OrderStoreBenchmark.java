@@ -0,0 +1,54 @@
+package hello.aop.store;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8개 스레드가 동시에 주문 하나짜리 트랜잭션을 커밋하는 비용을 측정함
+ * - maxBatch=1 : 커밋마다 fsync
+ * - maxBatch=1024 : 쓰기 스레드가 기다리는 동안 쌓인 커밋을 fsync 한 번으로 함께 반영 (그룹 커밋)
+ * - 실행이 끝나면 fsync 한 번에 반영된 평균 커밋 수를 출력함
+ * (실행) ./gradlew jmh -PjmhIncludes=OrderStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class OrderStoreBenchmark {
+
+    private static final List<String> ORDER = List.of("itemA");
+
+    @Param({"1", "1024"})
+    int maxBatch;
+
+    Path directory;
+    FileOrderStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-store-bench");
+        store = new FileOrderStore(directory.resolve("orders.log"), maxBatch, true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        System.out.printf("[maxBatch=%d] commits=%d fsyncs=%d commits/fsync=%.1f%n", maxBatch, store.getCommits(), store.getBatches(),
+                (double) store.getCommits() / Math.max(1, store.getBatches()));
+        Files.deleteIfExists(directory.resolve("orders.log"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void commit() {
+        store.commit(ORDER);
+    }
+}
@@ -0,0 +1,65 @@
+package hello.aop.load;
+
+import hello.aop.exam.aop.CallRejectedException;
+import hello.aop.metrics.HistogramSnapshot;
+import hello.aop.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하를 줄 대상 호출 하나와 그 결과(지연 시간 히스토그램, 실패 수, 거절 수)
+ * - 애스펙트가 대상을 호출하지 않고 거절한 호출(CallRejectedException)은 실패가 아닌 거절로 세고, 지연 시간에도 넣지 않음
+ * - 워커 스레드가 모두 멈춘 상태에서만 reset() 함
+ */
+class LoadTarget {
+
+    private final String name;
+    private final Runnable operation;
+    private final int concurrency;
+
+    private LatencyHistogram histogram;
+    private LongAdder errors;
+    private LongAdder rejections;
+
+    LoadTarget(String name, Runnable operation, int concurrency) {
+        this.name = name;
+        this.operation = operation;
+        this.concurrency = concurrency;
+        reset();
+    }
+
+    void call() {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } catch (CallRejectedException e) {
+            rejections.increment();
+            return;
+        } catch (RuntimeException e) {
+            errors.increment();
+        }
+        histogram.record(System.nanoTime() - start);
+    }
+
+    void reset() {
+        histogram = new LatencyHistogram(concurrency);
+        errors = new LongAdder();
+        rejections = new LongAdder();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    HistogramSnapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getRejections() {
+        return rejections.sum();
+    }
+}
@@ -0,0 +1,38 @@
+package hello.aop.load;
+
+import hello.aop.exam.aop.BulkheadAspect;
+import hello.aop.exam.aop.CachedAspect;
+import hello.aop.exam.aop.CircuitBreakerAspect;
+import hello.aop.exam.aop.CoalesceAspect;
+import hello.aop.exam.aop.RateLimitedAspect;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TimeoutAspect;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.order.aop.AspectV5Order;
+import hello.aop.order.aop.TimedAspect;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 어드바이스가 적용된 서비스에 여러 스레드로 부하를 주는 애플리케이션
+ * - 테스트와 같은 애스펙트 구성을 사용함
+ *   OrderService : AspectV5Order(LogAspect, TxAspect) + TimedAspect + TimeoutAspect + RateLimitedAspect
+ *   ExamService : RateLimitedAspect + TraceAspect + RetryAspect + CircuitBreakerAspect + BulkheadAspect
+ *   SaturatingDownstream : BulkheadAspect
+ *   MemberService : MethodAopAspect + CoalesceAspect + CachedAspect
+ * - 실행은 ./gradlew loadTest (설정은 LoadTestRunner 참고)
+ * - 종료 코드는 LoadTestRunner 가 정함 (기준을 넘으면 1)
+ */
+@SpringBootApplication(scanBasePackages = "hello.aop")
+@Import({AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, TimedAspect.class,
+        TraceAspect.class, RetryAspect.class, CircuitBreakerAspect.class, TimeoutAspect.class, BulkheadAspect.class,
+        CoalesceAspect.class, CachedAspect.class, RateLimitedAspect.class, MethodAopAspect.class})
+public class LoadTestApplication {
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = SpringApplication.run(LoadTestApplication.class, args);
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,207 @@
+package hello.aop.load;
+
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.ExamService;
+import hello.aop.exam.aop.BulkheadAspect;
+import hello.aop.exam.aop.BulkheadLimiter;
+import hello.aop.exam.aop.RateLimitedAspect;
+import hello.aop.exam.aop.RateLimiter;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.RetryBudget;
+import hello.aop.exam.fault.FaultInjector;
+import hello.aop.member.MemberService;
+import hello.aop.metrics.HistogramSnapshot;
+import hello.aop.order.OrderService;
+import hello.aop.support.ThreadSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 설정한 수의 스레드로 대상 서비스를 번갈아 호출하고 처리량, 지연 시간 백분위, 실패/재시도 수를 출력함
+ * - load.threads : 워커 스레드 수 (기본 8)
+ * - load.thread-type : platform | virtual (virtual 은 JDK 21 이상에서 실행할 때만 가능, -PjavaVersion=21 이면 JDK 21 툴체인으로 실행함)
+ * - load.warmup-seconds, load.duration-seconds : 워밍업 시간(결과에서 제외), 측정 시간
+ * - load.targets : order, exam, member, downstream, downstream-bulkhead 중 부하를 줄 대상 (쉼표로 구분)
+ *   downstream, downstream-bulkhead 는 용량이 정해진 하위 시스템(SaturatingDownstream)을 보호 없이, @Bulkhead 를 거쳐서 호출함
+ * - load.max-error-rate : 실패 비율이 이 값을 넘으면 종료 코드 1 (기본 0 = 실패가 하나라도 있으면 1)
+ * - load.max-p99-micros : 대상별 p99 가 이 값(µs)을 넘으면 종료 코드 1 (음수면 검사하지 않음)
+ * (실행) ./gradlew loadTest -Pload.threads=64 -Pload.thread-type=virtual -Pload.duration-seconds=30
+ * (벌크헤드) ./gradlew loadTest -Pload.threads=256 -Pload.targets=downstream,downstream-bulkhead
+ *   스레드 수를 늘려도 downstream-bulkhead 의 p99 는 목표 지연 시간 근처에 머물고 넘친 호출은 rejected 로 집계됨
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestRunner implements CommandLineRunner, ExitCodeGenerator {
+
+    private static final int ITEM_COUNT = 100_000;
+
+    private final OrderService orderService;
+    private final ExamService examService;
+    private final MemberService memberService;
+    private final RetryAspect retryAspect;
+    private final FaultInjector examFaultInjector;
+    private final SaturatingDownstream saturatingDownstream;
+    private final BulkheadAspect bulkheadAspect;
+    private final RateLimitedAspect rateLimitedAspect;
+
+    @Value("${load.threads:8}")
+    private int threads;
+    @Value("${load.thread-type:platform}")
+    private String threadType;
+    @Value("${load.warmup-seconds:3}")
+    private int warmupSeconds;
+    @Value("${load.duration-seconds:10}")
+    private int durationSeconds;
+    @Value("${load.targets:order,exam,member}")
+    private List<String> targetNames;
+    @Value("${load.max-error-rate:0}")
+    private double maxErrorRate;
+    @Value("${load.max-p99-micros:-1}")
+    private long maxP99Micros;
+
+    private int exitCode;
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<LoadTarget> targets = createTargets();
+        log.info("[load] threads={} type={} warmup={}s duration={}s targets={}",
+                threads, threadType, warmupSeconds, durationSeconds, targetNames);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory(threadType));
+        try {
+            runPhase(executor, targets, warmupSeconds);
+            targets.forEach(LoadTarget::reset);
+
+            RetryBudget budget = retryAspect.getBudget(ExamRepository.class.getMethod("save", String.class));
+            long requestsBefore = budget == null ? 0 : budget.getRequests();
+            long retriesBefore = budget == null ? 0 : budget.getRetries();
+            long exhaustedBefore = budget == null ? 0 : budget.getExhausted();
+            long faultsBefore = examFaultInjector.getFaults();
+
+            long elapsedNanos = runPhase(executor, targets, durationSeconds);
+
+            report(targets, elapsedNanos);
+            if (budget != null) {
+                log.info("[load] ExamRepository.save requests={} retries={} budgetExhausted={} injectedFaults={}",
+                        budget.getRequests() - requestsBefore, budget.getRetries() - retriesBefore,
+                        budget.getExhausted() - exhaustedBefore, examFaultInjector.getFaults() - faultsBefore);
+            }
+            BulkheadLimiter limiter = bulkheadAspect.getLimiter(SaturatingDownstream.class.getMethod("callWithBulkhead"));
+            if (limiter != null) {
+                log.info("[load] SaturatingDownstream.callWithBulkhead {}", limiter);
+            }
+            RateLimiter rateLimiter = rateLimitedAspect.getLimiter(OrderService.class.getMethod("orderItem", String.class));
+            if (rateLimiter != null) {
+                log.info("[load] OrderService.orderItem {}", rateLimiter);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<LoadTarget> createTargets() {
+        List<LoadTarget> targets = new ArrayList<>();
+        for (String name : targetNames) {
+            switch (name.trim()) {
+                case "order":
+                    targets.add(new LoadTarget("OrderService.orderItem", () -> orderService.orderItem(itemId()), threads));
+                    break;
+                case "exam":
+                    targets.add(new LoadTarget("ExamService.request", () -> examService.request(itemId()), threads));
+                    break;
+                case "member":
+                    targets.add(new LoadTarget("MemberService.hello", () -> memberService.hello("param"), threads));
+                    break;
+                case "downstream":
+                    targets.add(new LoadTarget("SaturatingDownstream.call", saturatingDownstream::call, threads));
+                    break;
+                case "downstream-bulkhead":
+                    targets.add(new LoadTarget("SaturatingDownstream.callWithBulkhead", saturatingDownstream::callWithBulkhead, threads));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown load target: " + name);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * order, exam 은 상품마다 속도 한도(@RateLimited)가 있으므로 여러 상품에 나눠서 호출함
+     */
+    private static String itemId() {
+        return "item" + ThreadLocalRandom.current().nextInt(ITEM_COUNT);
+    }
+
+    /**
+     * 모든 워커가 seconds 동안 대상들을 번갈아 호출하고, 실제로 걸린 시간(ns)을 반환함
+     */
+    private long runPhase(ExecutorService executor, List<LoadTarget> targets, int seconds) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers.add(executor.submit(() -> {
+                int size = targets.size();
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    targets.get(i++ % size).call();
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void report(List<LoadTarget> targets, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        for (LoadTarget target : targets) {
+            HistogramSnapshot snapshot = target.snapshot();
+            long errors = target.getErrors();
+            double errorRate = snapshot.getCount() == 0 ? 0 : (double) errors / snapshot.getCount();
+            log.info("[load] {} throughput={}/s errors={} rejected={} {}",
+                    target.getName(), String.format("%.0f", snapshot.getCount() / seconds), errors, target.getRejections(), snapshot);
+
+            if (errorRate > maxErrorRate) {
+                log.warn("[load] {} error rate {} exceeds {}", target.getName(), errorRate, maxErrorRate);
+                exitCode = 1;
+            }
+            if (maxP99Micros >= 0 && snapshot.getP99() > TimeUnit.MICROSECONDS.toNanos(maxP99Micros)) {
+                log.warn("[load] {} p99 {}us exceeds {}us", target.getName(), snapshot.getP99() / 1000, maxP99Micros);
+                exitCode = 1;
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String threadType) {
+        switch (threadType) {
+            case "platform":
+                return Executors.defaultThreadFactory();
+            case "virtual":
+                return ThreadSupport.virtualThreadFactory();
+            default:
+                throw new IllegalArgumentException("unknown thread type: " + threadType);
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
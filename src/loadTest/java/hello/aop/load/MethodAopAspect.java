@@ -0,0 +1,26 @@
+package hello.aop.load;
+
+import hello.aop.member.annotation.MethodAop;
+import hello.aop.support.AdviceMetadata;
+import hello.aop.support.AdviceMetadataCache;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * MemberService 에 적용하는 애스펙트, 캐시된 메타데이터에서 @MethodAop 값을 읽음
+ */
+@Slf4j
+@Aspect
+public class MethodAopAspect {
+
+    @Around("execution(* hello.aop.member..*(..)) && @annotation(hello.aop.member.annotation.MethodAop)")
+    public Object doMethodAop(ProceedingJoinPoint joinPoint) throws Throwable {
+        AdviceMetadata metadata = AdviceMetadataCache.get(joinPoint);
+        if (log.isDebugEnabled()) {
+            log.debug("[methodAop] {} value={}", metadata.getSignature(), metadata.getAnnotation(MethodAop.class).value());
+        }
+        return joinPoint.proceed();
+    }
+}
@@ -0,0 +1,52 @@
+package hello.aop.load;
+
+import hello.aop.exam.annotation.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 처리 용량이 정해진 하위 시스템 흉내
+ * - 동시에 capacity 개까지만 처리하고, 호출 하나를 처리하는 데 service-micros 만큼 걸림
+ * - 용량을 넘는 호출은 안에서 줄을 서므로 동시 호출 수에 비례해서 지연 시간이 늘어남
+ *   (ex) capacity=4, service=1ms 에 64개가 동시에 호출하면 약 16ms
+ * - call() 은 보호 없이, callWithBulkhead() 는 @Bulkhead 를 거쳐서 호출함 (서로 다른 용량을 사용하므로 서로 영향을 주지 않음)
+ *   벌크헤드는 목표 지연 시간(3ms)을 넘으면 동시 실행 한도를 줄이고, 넘친 호출은 5ms 까지만 기다린 뒤 거절함
+ *   그래서 부하를 과하게 줘도 받아들인 호출의 지연 시간은 늘어나지 않고, 넘친 만큼 빠르게 거절됨
+ * - load.downstream.capacity, load.downstream.service-micros 로 바꿀 수 있음
+ */
+@Component
+public class SaturatingDownstream {
+
+    private final Semaphore unprotected;
+    private final Semaphore protectedCapacity;
+    private final long serviceNanos;
+
+    public SaturatingDownstream(@Value("${load.downstream.capacity:4}") int capacity,
+                                @Value("${load.downstream.service-micros:1000}") long serviceMicros) {
+        this.unprotected = new Semaphore(capacity, true);
+        this.protectedCapacity = new Semaphore(capacity, true);
+        this.serviceNanos = TimeUnit.MICROSECONDS.toNanos(serviceMicros);
+    }
+
+    public void call() {
+        serve(unprotected);
+    }
+
+    @Bulkhead(maxConcurrent = 32, minConcurrent = 2, queueSize = 32, maxWaitMillis = 5, targetLatencyMicros = 3_000)
+    public void callWithBulkhead() {
+        serve(protectedCapacity);
+    }
+
+    private void serve(Semaphore capacity) {
+        capacity.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(serviceNanos);
+        } finally {
+            capacity.release();
+        }
+    }
+}
@@ -1,24 +1,30 @@
 package hello.aop.exam;
 
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.exam.annotation.CircuitBreaker;
 import hello.aop.exam.annotation.Retry;
 import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.fault.FaultInjector;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@RequiredArgsConstructor
 public class ExamRepository {
 
-    private static int seq = 0;
+    private final FaultInjector faultInjector;
 
     /**
-     * 5번에 1번 실패하는 요청
+     * 5번에 1번 실패하는 요청 (실패 방식은 exam.fault.* 설정으로 바꿀 수 있음)
+     * - 하위 시스템이 완전히 멈추면 서킷 브레이커가 열려서 재시도 없이 바로 실패함
+     * - 동시에 32개까지 실행하고, 실행 시간이 5ms 를 넘기 시작하면 동시 실행 한도를 4개까지 줄임 (넘친 호출은 50ms 까지 기다림)
      */
     @Trace
-    @Retry(4)
+    @Retry(value = 4, budgetRatio = 0.3)
+    @CircuitBreaker(openMillis = 500)
+    @Bulkhead(maxConcurrent = 32, minConcurrent = 4, queueSize = 64, maxWaitMillis = 50, targetLatencyMicros = 5_000)
     public String save(String itemId){
-        seq++;
-        if(seq % 5 == 0){
-            throw new IllegalStateException("예외 발생");
-        }
+        faultInjector.maybeFail();
         return "ok";
     }
 }
@@ -1,5 +1,6 @@
 package hello.aop.exam;
 
+import hello.aop.exam.annotation.RateLimited;
 import hello.aop.exam.annotation.Trace;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,7 @@ public class ExamService {
     private final ExamRepository examRepository;
 
     @Trace
+    @RateLimited(permitsPerSecond = 500, burst = 100, keyArgs = 0)
     public void request(String itemId){
         examRepository.save(itemId);
     }
@@ -0,0 +1,28 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - maxConcurrent : 동시에 실행할 수 있는 최대 호출 수 (적응형이면 한도의 상한)
+ * - minConcurrent : 적응형일 때 한도가 줄어들 수 있는 하한
+ * - queueSize : 한도가 찼을 때 기다릴 수 있는 호출 수, 대기열도 차면 바로 거절함 (0 이면 기다리지 않음)
+ * - maxWaitMillis : 대기열에서 기다리는 최대 시간(ms), 지나면 거절함
+ * - targetLatencyMicros : 목표 지연 시간(µs), 0 보다 크면 한도를 AIMD 로 조절함
+ *   목표보다 빨리 끝나면 한도를 조금씩(1/한도) 늘리고, 목표를 넘기면 0.9 배로 줄임 (목표 지연 시간마다 최대 한 번)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    int maxConcurrent() default 16;
+
+    int minConcurrent() default 1;
+
+    int queueSize() default 0;
+
+    long maxWaitMillis() default 0;
+
+    long targetLatencyMicros() default 0;
+}
@@ -0,0 +1,29 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메서드의 결과를 인자별로 기억해 두고, 같은 인자로 다시 호출하면 대상을 호출하지 않고 기억한 결과를 반환함
+ * - 인자만으로 결과가 정해지는 메서드에만 사용함, 예외는 기억하지 않음
+ * - maximumSize : 메서드별로 기억할 최대 결과 수, 넘으면 가장 오래 사용하지 않은 결과부터 버림 (LRU)
+ * - ttlMillis : 결과를 기억하는 시간(ms), 0 이면 버려질 때까지 계속 기억함
+ * - keyArgs, keyExtractor : 키를 만드는 방법 (@Coalesce 와 같음)
+ * - offHeapMinBytes : 직렬화한 크기가 이 값 이상인 결과는 힙 밖(direct ByteBuffer)에 저장함 (음수면 사용하지 않음)
+ *   String, byte[], Serializable 만 저장할 수 있고, 꺼낼 때마다 새 객체로 만들어서 반환함
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+    int maximumSize() default 1000;
+
+    long ttlMillis() default 0;
+
+    int[] keyArgs() default {};
+
+    Class<? extends KeyExtractor> keyExtractor() default KeyExtractor.class;
+
+    int offHeapMinBytes() default -1;
+}
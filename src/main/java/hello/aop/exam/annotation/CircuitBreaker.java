@@ -0,0 +1,30 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - windowSize : 실패율을 계산할 최근 호출 수 (슬라이딩 윈도우)
+ * - minimumCalls : 윈도우에 이 수만큼 호출이 쌓이기 전에는 실패율이 높아도 열리지 않음
+ * - failureRateThreshold : 윈도우의 실패율이 이 값 이상이면 열림 (0.0 ~ 1.0)
+ * - openMillis : 열린 뒤 이 시간(ms) 동안은 대상을 호출하지 않고 바로 실패함, 지나면 반 열림 상태로 시험 호출을 허용함
+ * - halfOpenCalls : 반 열림 상태에서 허용하는 시험 호출 수, 모두 성공하면 닫히고 하나라도 실패하면 다시 열림
+ * - ignore : 실패로 세지 않을 예외 (ex) 입력값 오류처럼 하위 시스템 장애가 아닌 예외
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+    int windowSize() default 20;
+
+    int minimumCalls() default 10;
+
+    double failureRateThreshold() default 0.5;
+
+    long openMillis() default 1000;
+
+    int halfOpenCalls() default 3;
+
+    Class<? extends Throwable>[] ignore() default {};
+}
@@ -0,0 +1,21 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 대상 호출 한 번으로 합침
+ * - keyArgs : 키로 사용할 인자 위치 (비어 있으면 모든 인자)
+ *   (ex) find(String id, long requestedAt) 에 keyArgs = 0 이면 requestedAt 이 달라도 id 가 같으면 합침
+ * - keyExtractor : 키를 직접 만드는 클래스, 지정하면 keyArgs 는 사용하지 않음
+ * - 결과 객체와 예외는 기다린 모든 호출자가 함께 받으므로 변경할 수 없는 값을 반환하는 메서드에만 사용함
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+    int[] keyArgs() default {};
+
+    Class<? extends KeyExtractor> keyExtractor() default KeyExtractor.class;
+}
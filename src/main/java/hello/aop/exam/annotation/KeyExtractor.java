@@ -0,0 +1,11 @@
+package hello.aop.exam.annotation;
+
+/**
+ * 호출 인자로 키를 만드는 방법을 메서드별로 바꿀 때 구현함 (@Coalesce(keyExtractor), @Cached(keyExtractor))
+ * - 인자 없는 생성자가 있어야 하고, 메서드마다 한 번만 만들어서 여러 스레드에서 함께 사용함
+ * - 반환한 키는 equals, hashCode 로 비교함 (null 이면 null 끼리 같은 키)
+ */
+@FunctionalInterface
+public interface KeyExtractor {
+    Object extract(Object[] args);
+}
@@ -0,0 +1,34 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 호출 속도를 제한함, 넘친 호출은 대상을 호출하지 않고 RateLimitExceededException 으로 거절함
+ * - permitsPerSecond : 초당 허용하는 호출 수
+ * - burst : 한 번에 몰려도 허용하는 호출 수 (쉬는 동안 최대 burst 개까지 쌓임)
+ * - keyArgs : 키로 사용할 인자 위치, 비어 있으면 메서드 전체가 하나의 한도를 나눠 씀
+ *   (ex) orderItem(String itemId) 에 keyArgs = 0 이면 itemId 마다 따로 제한함
+ * - permitsArg : 호출 하나가 가져갈 한도 수를 정하는 인자 위치 (Collection 이면 크기, 배열이면 길이, 정수면 그 값)
+ *   -1 이면 호출마다 하나, (ex) orderItems(Collection<String> itemIds) 에 permitsArg = 0 이면 주문 수만큼 가져감
+ *   burst 보다 많이 가져가려는 호출은 한도가 가득 차도 허용할 수 없으므로 바로 거절함 (한 번에 처리하는 양의 상한)
+ * - idleMillis : 키별 한도가 가득 찬 채로 이 시간(ms) 동안 쓰이지 않으면 지움
+ * - maxKeys : 동시에 기억하는 키의 최대 수, 넘으면 새 키는 하나의 공용 한도를 나눠 씀
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    double permitsPerSecond();
+
+    int burst() default 1;
+
+    int[] keyArgs() default {};
+
+    int permitsArg() default -1;
+
+    long idleMillis() default 60_000;
+
+    int maxKeys() default 1_000_000;
+}
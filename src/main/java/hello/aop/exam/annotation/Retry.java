@@ -5,8 +5,34 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * - value : 첫 시도를 포함한 최대 시도 횟수
+ * - backoff, multiplier, maxBackoff : 재시도 전 대기 시간(ms), 재시도할 때마다 multiplier 배씩 늘어나고 maxBackoff 를 넘지 않음 (0 이면 바로 재시도)
+ * - jitter : 대기 시간 중 무작위로 줄일 비율 (0.0 ~ 1.0), 여러 호출자가 동시에 재시도하는 것을 흩어줌
+ * - retryFor, noRetryFor : 재시도할 예외, 재시도하지 않을 예외 (비어 있으면 모든 Exception 을 재시도, noRetryFor 가 우선)
+ * - budget : 재시도 예산 이름, 비어 있으면 메서드별 예산을 사용하고 같은 이름을 쓰는 메서드끼리는 예산을 공유함
+ * - budgetRatio, budgetReserve : 요청 대비 허용하는 재시도 비율과 여유 토큰 수 (budgetRatio 가 0 이하면 예산 없이 재시도)
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Retry {
     int value() default 3;
+
+    long backoff() default 0;
+
+    double multiplier() default 2.0;
+
+    long maxBackoff() default 1000;
+
+    double jitter() default 0.5;
+
+    Class<? extends Throwable>[] retryFor() default {};
+
+    Class<? extends Throwable>[] noRetryFor() default {};
+
+    String budget() default "";
+
+    double budgetRatio() default 0.2;
+
+    int budgetReserve() default 10;
 }
@@ -0,0 +1,22 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - value : 호출에 허용하는 시간(ms), 바깥 호출의 마감 시각이 더 이르면 바깥 마감 시각을 그대로 사용함
+ * - interrupt : 마감 시각이 지나면 호출한 스레드를 인터럽트함 (sleep, 락 대기, 블로킹 큐처럼 인터럽트에 반응하는 대기를 깨움)
+ *   호출마다 스케줄러에 작업을 예약하므로 대상이 오래 막힐 수 있는 메서드에만 사용함
+ *   FileChannel 같은 InterruptibleChannel 은 인터럽트되면 채널이 닫히므로, 파일에 쓰는 대상에는 사용하지 않음
+ * - interrupt = false 인 동기 대상은 마감 시각이 지나도 멈추지 않고 끝난 뒤에 결과만 버려짐
+ *   부작용이 있는 동기 대상은 쓰기 전이나 반복문 사이에 Deadline.check() 를 호출해서 마감이 지난 작업을 스스로 멈춰야 함
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+    long value();
+
+    boolean interrupt() default false;
+}
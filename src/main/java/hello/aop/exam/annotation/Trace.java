@@ -5,7 +5,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * - sampleRate : 이 메서드의 로그를 남길 비율 (0.0 ~ 1.0), 음수면 trace.sample-rate 설정을 따름
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Trace {
+    double sampleRate() default -1;
 }
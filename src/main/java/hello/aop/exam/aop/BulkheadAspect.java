@@ -0,0 +1,84 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벌크헤드 에스팩트
+ * - 메서드마다 BulkheadLimiter 를 하나씩 두고, 한도와 대기열이 모두 차면 BulkheadFullException 을 던짐
+ * - 거절은 로그를 남기지 않고 카운터(BulkheadLimiter.getRejected)만 올림, 예외도 메서드마다 하나를 재사용함
+ * - RetryAspect(@Order(1)), CircuitBreakerAspect(@Order(2)), TimeoutAspect(@Order(3)) 보다 안쪽(@Order(4))에 적용되므로 재시도 한 번 한 번이 자리를 차지함
+ *   대기열에서 기다린 시간도 @Timeout 의 허용 시간에 포함됨
+ *   지연 시간은 대상 한 번의 실행 시간만 재서 한도를 조절함
+ * - CompletionStage 를 반환하는 메서드는 future 가 완료될 때 자리를 돌려줌
+ */
+@Aspect
+@Order(4)
+public class BulkheadAspect {
+
+    private final ConcurrentMap<Method, Compartment> compartments = new ConcurrentHashMap<>();
+
+    @Around("@annotation(bulkhead)")
+    public Object doBulkhead(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        Compartment compartment = compartmentOf(joinPoint, bulkhead);
+        BulkheadLimiter limiter = compartment.limiter;
+        if (!limiter.tryAcquire()) {
+            throw compartment.fullException;
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            limiter.release(System.nanoTime() - start);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, ex) -> limiter.release(System.nanoTime() - start));
+        } else {
+            limiter.release(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * 메서드에 적용된 벌크헤드를 반환함, 아직 호출된 적이 없으면 null
+     */
+    public BulkheadLimiter getLimiter(Method method) {
+        Compartment compartment = compartments.get(method);
+        return compartment == null ? null : compartment.limiter;
+    }
+
+    private Compartment compartmentOf(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) {
+        Method method = JoinPoints.method(joinPoint);
+        Compartment compartment = compartments.get(method);
+        if (compartment == null) {
+            compartment = compartments.computeIfAbsent(method, m -> new Compartment(m, bulkhead));
+        }
+        return compartment;
+    }
+
+    private static final class Compartment {
+
+        private final BulkheadLimiter limiter;
+        private final BulkheadFullException fullException;
+
+        private Compartment(Method method, Bulkhead bulkhead) {
+            this.limiter = new BulkheadLimiter(bulkhead.minConcurrent(), bulkhead.maxConcurrent(), bulkhead.queueSize(),
+                    TimeUnit.MILLISECONDS.toNanos(bulkhead.maxWaitMillis()), TimeUnit.MICROSECONDS.toNanos(bulkhead.targetLatencyMicros()));
+            this.fullException = new BulkheadFullException(
+                    "bulkhead is full: " + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package hello.aop.exam.aop;
+
+/**
+ * 벌크헤드의 동시 실행 수와 대기열이 모두 차서 대상을 호출하지 않고 바로 실패할 때 던지는 예외
+ */
+public class BulkheadFullException extends CallRejectedException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
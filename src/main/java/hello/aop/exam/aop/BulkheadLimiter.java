@@ -0,0 +1,195 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 메서드별 동시 실행 수 제한 (적응형 한도 + 크기가 정해진 대기열)
+ * - 한도 안이면 inFlight 를 CAS 로 1 올리고 바로 실행함 (락을 잡지 않음)
+ * - 한도가 차면 대기열(waiting)에 자리가 있을 때만 ReentrantLock 의 Condition 에서 maxWaitNanos 동안 기다림
+ *   대기열이 꽉 찼거나 기다리지 않는 설정이면 카운터 하나만 올리고 바로 거절함
+ * - release() 는 inFlight 를 내리고, 기다리는 호출이 있을 때만 락을 잡고 하나를 깨움
+ *
+ * 적응형 한도 (AIMD)
+ * - 한도는 소수점까지 조절하기 위해 SCALE 배 해서 저장하고, 실제 한도는 정수 부분을 사용함
+ * - 목표 지연 시간 안에 끝난 호출마다 1/한도 만큼 늘림 => 한도만큼 호출이 끝나면(한 바퀴) 1 늘어남
+ * - 목표를 넘긴 호출이 있으면 BACKOFF_RATIO 배로 줄임, 동시에 끝난 느린 호출들이 한도를 연달아 줄이지 않도록 목표 지연 시간마다 한 번만 줄임
+ * - 한도가 줄어도 이미 실행 중인 호출은 그대로 끝나고, 새 호출부터 줄어든 한도를 적용함
+ */
+public class BulkheadLimiter {
+
+    private static final long SCALE = 1000;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final long targetLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong scaledLimit;
+    private volatile long lastDecrease;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    public BulkheadLimiter(int minLimit, int maxLimit, int queueSize, long maxWaitNanos, long targetLatencyNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || queueSize < 0) {
+            throw new IllegalArgumentException("invalid bulkhead: min=" + minLimit + ", max=" + maxLimit + ", queue=" + queueSize);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = maxWaitNanos > 0 ? queueSize : 0;
+        this.maxWaitNanos = maxWaitNanos;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.scaledLimit = new AtomicLong(maxLimit * SCALE);
+        this.lastDecrease = System.nanoTime() - targetLatencyNanos;
+    }
+
+    /**
+     * 실행해도 되면 true, 거절하면 false
+     * - true 를 반환했으면 실행이 끝난 뒤 반드시 release() 를 호출해야 함
+     */
+    public boolean tryAcquire() {
+        if (tryIncrement()) {
+            accepted.increment();
+            return true;
+        }
+        if (queueSize == 0 || waiting.incrementAndGet() > queueSize) {
+            if (queueSize != 0) {
+                waiting.decrementAndGet();
+            }
+            rejected.increment();
+            return false;
+        }
+        return awaitSlot();
+    }
+
+    private boolean tryIncrement() {
+        int limit = getLimit();
+        int current = inFlight.get();
+        while (current < limit) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    /**
+     * 대기열에서 자리가 날 때까지 기다림
+     * - 자리를 확인하고 기다리기 시작할 때까지 락을 잡고 있으므로 그 사이에 release() 가 보낸 신호를 놓치지 않음
+     */
+    private boolean awaitSlot() {
+        queued.increment();
+        long remaining = maxWaitNanos;
+        lock.lock();
+        try {
+            while (!tryIncrement()) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            accepted.increment();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * 실행이 끝났을 때 걸린 시간(ns)과 함께 호출함
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (targetLatencyNanos > 0) {
+            adjust(latencyNanos);
+        }
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void adjust(long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            long now = System.nanoTime();
+            if (now - lastDecrease < targetLatencyNanos) {
+                return;
+            }
+            lastDecrease = now;
+            long current = scaledLimit.get();
+            long next = Math.max(minLimit * SCALE, (long) (current * BACKOFF_RATIO));
+            if (next < current && scaledLimit.compareAndSet(current, next)) {
+                decreases.increment();
+            }
+            return;
+        }
+        long current = scaledLimit.get();
+        while (current < maxLimit * SCALE) {
+            long next = Math.min(maxLimit * SCALE, current + SCALE * SCALE / current);
+            if (scaledLimit.compareAndSet(current, next)) {
+                return;
+            }
+            current = scaledLimit.get();
+        }
+    }
+
+    public int getLimit() {
+        return (int) (scaledLimit.get() / SCALE);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDecreases() {
+        return decreases.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadLimiter{limit=" + getLimit() + "/" + maxLimit + ", inFlight=" + getInFlight()
+                + ", accepted=" + getAccepted() + ", queued=" + getQueued() + ", rejected=" + getRejected()
+                + ", decreases=" + getDecreases() + ", targetLatency=" + TimeUnit.NANOSECONDS.toMicros(targetLatencyNanos) + "us}";
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Cached;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 결과를 기억하는 에스팩트
+ * - 메서드마다 LruCache 를 하나씩 두므로 키에 메서드를 넣지 않음
+ * - 키는 InvocationKeys 로 만듦, 인자 하나면 그 인자가 키이고 인자 배열은 복사하지 않음 (JoinPoints.args)
+ * - @RateLimited(@Order(-2)) 를 빼면 가장 바깥(@Order(-1))에 적용되므로 기억한 결과를 찾으면 안쪽 어드바이스와 대상을 모두 건너뜀
+ *   찾지 못한 호출이 동시에 여러 개면 안쪽의 @Coalesce 가 대상 호출 한 번으로 합침
+ * - null 결과도 기억하고, 예외는 기억하지 않음
+ * - CompletionStage 를 반환하는 메서드는 future 가 정상 완료된 뒤에 그 값을 기억하고, 찾으면 완료된 future 로 돌려줌
+ *   실패하거나 아직 완료되지 않은 future 는 기억하지 않으므로 실패한 결과를 TTL 동안 계속 돌려주지 않음
+ */
+@Aspect
+@Order(-1)
+public class CachedAspect {
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final ConcurrentMap<Method, MethodCache> caches = new ConcurrentHashMap<>();
+
+    @Around("@annotation(cached)")
+    public Object doCached(ProceedingJoinPoint joinPoint, Cached cached) throws Throwable {
+        MethodCache cache = cacheOf(joinPoint, cached);
+        Object key = cache.keys.keyOf(JoinPoints.args(joinPoint));
+        Object value = cache.cache.get(key);
+        if (value != null) {
+            return cache.async ? CompletableFuture.completedFuture(unwrap(value)) : unwrap(value);
+        }
+
+        Object result = joinPoint.proceed();
+        if (cache.async && result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((completed, ex) -> {
+                if (ex == null) {
+                    cache.cache.put(key, wrap(completed, cache.offHeapMinBytes));
+                }
+            });
+        } else {
+            cache.cache.put(key, wrap(result, cache.offHeapMinBytes));
+        }
+        return result;
+    }
+
+    private static Object wrap(Object result, int offHeapMinBytes) {
+        if (result == null) {
+            return NULL_VALUE;
+        }
+        return offHeapMinBytes < 0 ? result : OffHeapValue.encode(result, offHeapMinBytes);
+    }
+
+    private static Object unwrap(Object value) {
+        if (value == NULL_VALUE) {
+            return null;
+        }
+        return value instanceof OffHeapValue ? ((OffHeapValue) value).decode() : value;
+    }
+
+    /**
+     * 메서드의 캐시를 반환함, 아직 호출된 적이 없으면 null
+     */
+    public LruCache getCache(Method method) {
+        MethodCache cache = caches.get(method);
+        return cache == null ? null : cache.cache;
+    }
+
+    private MethodCache cacheOf(ProceedingJoinPoint joinPoint, Cached cached) {
+        Method method = JoinPoints.method(joinPoint);
+        MethodCache cache = caches.get(method);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(method, m -> new MethodCache(m, cached));
+        }
+        return cache;
+    }
+
+    private static final class MethodCache {
+
+        private final LruCache cache;
+        private final InvocationKeys keys;
+        private final int offHeapMinBytes;
+        private final boolean async;
+
+        private MethodCache(Method method, Cached cached) {
+            this.cache = new LruCache(cached.maximumSize(), TimeUnit.MILLISECONDS.toNanos(cached.ttlMillis()));
+            this.keys = InvocationKeys.of(method, cached.keyArgs(), cached.keyExtractor());
+            this.offHeapMinBytes = cached.offHeapMinBytes();
+            // 기억한 값을 completedFuture 로 돌려주므로 CompletableFuture 를 반환할 수 있는 메서드만 비동기로 처리함
+            Class<?> returnType = method.getReturnType();
+            this.async = CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package hello.aop.exam.aop;
+
+/**
+ * 애스펙트가 대상을 호출하지 않고 거절할 때 던지는 예외의 공통 부모
+ * - 하위 시스템이 실패한 것이 아니므로 RetryAspect 는 재시도하지 않고, CircuitBreakerAspect 는 실패로 세지 않음
+ * - 부하가 몰릴 때 호출마다 던지므로 스택 트레이스를 만들지 않음 (애스펙트는 메서드마다 하나를 만들어 재사용함)
+ */
+public abstract class CallRejectedException extends RuntimeException {
+
+    protected CallRejectedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,123 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.CircuitBreaker;
+import hello.aop.logging.AspectLog;
+import hello.aop.support.JoinPoints;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서킷 브레이커 에스팩트
+ * - 메서드마다 CircuitBreakerState 를 하나씩 두고, 열려 있으면 대상을 호출하지 않고 CircuitBreakerOpenException 을 던짐
+ * - @Retry 와 함께 쓰면 RetryAspect(@Order(1)) 가 바깥, CircuitBreakerAspect(@Order(2)) 가 안쪽에 적용됨
+ *   재시도 한 번 한 번이 브레이커를 지나가므로 시도마다 실패율에 기록되고, 열린 뒤의 시도는 바로 거절됨
+ *   RetryPolicy 는 CircuitBreakerOpenException 을 재시도하지 않으므로 열린 동안은 요청당 대상 호출이 0 번이 됨
+ * - 안쪽 애스펙트가 거절한 호출(CallRejectedException, ex) 벌크헤드가 가득 참)은 하위 시스템의 실패가 아니므로 세지 않음
+ * - CompletionStage 를 반환하는 메서드는 future 가 완료될 때 결과를 기록함
+ */
+@Slf4j
+@Aspect
+@Order(2)
+public class CircuitBreakerAspect {
+
+    private final ConcurrentMap<Method, Breaker> breakers = new ConcurrentHashMap<>();
+
+    @Around("@annotation(circuitBreaker)")
+    public Object doCircuitBreaker(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) throws Throwable {
+        Breaker breaker = breakerOf(joinPoint, circuitBreaker);
+        CircuitBreakerState state = breaker.state;
+        long permit = state.tryAcquire();
+        if (permit == CircuitBreakerState.REJECTED) {
+            throw breaker.openException;
+        }
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            onError(breaker, permit, e);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, ex) -> {
+                if (ex == null) {
+                    state.onSuccess(permit);
+                } else {
+                    onError(breaker, permit, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                }
+            });
+        } else {
+            state.onSuccess(permit);
+        }
+        return result;
+    }
+
+    private void onError(Breaker breaker, long permit, Throwable e) {
+        if (e instanceof CallRejectedException || breaker.isIgnored(e)) {
+            breaker.state.onIgnored(permit);
+            return;
+        }
+        CircuitBreakerState.Status before = breaker.state.getStatus();
+        breaker.state.onFailure(permit);
+        if (before != CircuitBreakerState.Status.OPEN && breaker.state.getStatus() == CircuitBreakerState.Status.OPEN) {
+            AspectLog.info(log, "[circuit-breaker] open {} {}", breaker.name, breaker.state);
+        }
+    }
+
+    /**
+     * 메서드에 적용된 서킷 브레이커 상태를 반환함, 아직 호출된 적이 없으면 null
+     */
+    public CircuitBreakerState getState(Method method) {
+        Breaker breaker = breakers.get(method);
+        return breaker == null ? null : breaker.state;
+    }
+
+    private Breaker breakerOf(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) {
+        Method method = JoinPoints.method(joinPoint);
+        Breaker breaker = breakers.get(method);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(method, m -> new Breaker(m, circuitBreaker));
+        }
+        return breaker;
+    }
+
+    /**
+     * 메서드별로 한 번만 만들어 두는 상태, 무시할 예외 목록, 거절할 때 던질 예외
+     * - 거절할 때마다 예외를 새로 만들지 않도록 스택 트레이스 없는 예외 하나를 재사용함
+     */
+    private static final class Breaker {
+
+        private final String name;
+        private final CircuitBreakerState state;
+        private final Class<? extends Throwable>[] ignore;
+        private final CircuitBreakerOpenException openException;
+
+        private Breaker(Method method, CircuitBreaker circuitBreaker) {
+            this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            this.state = new CircuitBreakerState(circuitBreaker.windowSize(), circuitBreaker.minimumCalls(),
+                    circuitBreaker.failureRateThreshold(), TimeUnit.MILLISECONDS.toNanos(circuitBreaker.openMillis()),
+                    circuitBreaker.halfOpenCalls());
+            this.ignore = circuitBreaker.ignore();
+            this.openException = new CircuitBreakerOpenException("circuit breaker is open: " + name);
+        }
+
+        private boolean isIgnored(Throwable e) {
+            for (Class<? extends Throwable> type : ignore) {
+                if (type.isInstance(e)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package hello.aop.exam.aop;
+
+/**
+ * 서킷 브레이커가 열려 있어서 대상을 호출하지 않고 바로 실패할 때 던지는 예외
+ */
+public class CircuitBreakerOpenException extends CallRejectedException {
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,263 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 메서드별 서킷 브레이커 상태 (락 없이 CAS 로만 동작함)
+ * - CLOSED : 모든 호출을 허용하고 결과를 슬라이딩 윈도우에 기록함, 실패율이 기준을 넘으면 OPEN
+ * - OPEN : openNanos 동안 모든 호출을 거절함, 시간이 지난 뒤 첫 호출이 HALF_OPEN 으로 바꾸고 시험 호출이 됨
+ * - HALF_OPEN : halfOpenCalls 개의 시험 호출만 허용함, 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ *
+ * 상태(phase)
+ * - 하나의 long 에 하위 2비트는 상태, 나머지는 상태가 바뀐 횟수(세대)를 담아서 CAS 한 번으로 바꿈
+ * - tryAcquire() 는 허용한 시점의 phase 를 돌려주고, 결과를 기록할 때 phase 가 그대로인지 확인함
+ *   그래서 열리기 전에 시작한 호출이나 지난 반 열림 세대의 시험 호출 결과가 늦게 도착해도 현재 상태에 섞이지 않음
+ * - 반 열림 상태의 시험 호출 수, 성공 수는 세대(상위 32비트)와 함께 담아서 세대가 바뀌면 CAS 로 0 부터 다시 셈
+ *   따로 초기화하는 단계가 없으므로 여러 스레드가 동시에 상태를 바꿔도 이전 세대의 값이 남지 않음
+ *
+ * 슬라이딩 윈도우
+ * - 최근 windowSize 개 호출의 결과를 링 버퍼(AtomicIntegerArray)에 담음 (0 = 비어 있음, 1 = 성공, 2 = 실패)
+ * - 칸을 getAndSet 으로 바꾸면서 밀려난 결과와의 차이만큼 합계를 고침
+ *   실패 수(상위 32비트)와 호출 수(하위 32비트)를 하나의 long 에 담아서 둘을 항상 같은 시점의 값으로 읽음
+ */
+public class CircuitBreakerState {
+
+    public enum Status {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * tryAcquire() 가 호출을 거절할 때 반환하는 값 (phase 는 음수가 되지 않음)
+     */
+    public static final long REJECTED = -1;
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+    private static final long STATUS_MASK = 0b11;
+    private static final long GENERATION_MASK = 0xFFFF_FFFF_0000_0000L;
+
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final long ONE_CALL = 1L;
+    private static final long ONE_FAILURE = 1L << 32;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong phase = new AtomicLong(CLOSED);
+    private volatile long openedAt;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicLong totals = new AtomicLong();
+
+    private final AtomicLong halfOpenTrials = new AtomicLong();
+    private final AtomicLong halfOpenSuccesses = new AtomicLong();
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreakerState(int windowSize, int minimumCalls, double failureRateThreshold, long openNanos, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openNanos, halfOpenCalls, System::nanoTime);
+    }
+
+    public CircuitBreakerState(int windowSize, int minimumCalls, double failureRateThreshold, long openNanos, int halfOpenCalls,
+                               LongSupplier nanoClock) {
+        if (windowSize < 1 || halfOpenCalls < 1 || openNanos < 0) {
+            throw new IllegalArgumentException("windowSize, halfOpenCalls must be positive and openNanos >= 0");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]: " + failureRateThreshold);
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.outcomes = new AtomicIntegerArray(windowSize);
+    }
+
+    /**
+     * 호출을 허용하면 허용한 시점의 phase 를, 거절하면 REJECTED 를 반환함
+     * - CLOSED 는 volatile 읽기 한 번으로 끝남
+     */
+    public long tryAcquire() {
+        long current = phase.get();
+        switch (status(current)) {
+            case CLOSED:
+                return current;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt >= openNanos) {
+                    long next = transition(current, HALF_OPEN);
+                    current = next != REJECTED ? next : phase.get();
+                    if (status(current) == HALF_OPEN && increment(halfOpenTrials, current) > 0) {
+                        return current;
+                    }
+                }
+                break;
+            default:
+                if (increment(halfOpenTrials, current) > 0) {
+                    return current;
+                }
+        }
+        notPermitted.increment();
+        return REJECTED;
+    }
+
+    public void onSuccess(long permit) {
+        if (phase.get() != permit) {
+            return;
+        }
+        if (status(permit) == CLOSED) {
+            record(SUCCESS);
+        } else if (increment(halfOpenSuccesses, permit) == halfOpenCalls) {
+            clearWindow();
+            transition(permit, CLOSED);
+        }
+    }
+
+    public void onFailure(long permit) {
+        if (phase.get() != permit) {
+            return;
+        }
+        if (status(permit) == HALF_OPEN) {
+            open(permit);
+            return;
+        }
+        long current = record(FAILURE);
+        int calls = (int) current;
+        int failures = (int) (current >>> 32);
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open(permit);
+        }
+    }
+
+    /**
+     * 실패로 세지 않는 예외가 발생했을 때 호출함
+     * - 닫힌 상태에서는 윈도우에 기록하지 않음
+     * - 반 열림 상태의 시험 호출이면 결과를 판단할 수 없으므로 시험 호출 수를 돌려줘서 다른 호출이 시험하게 함
+     */
+    public void onIgnored(long permit) {
+        if (status(permit) != HALF_OPEN) {
+            return;
+        }
+        long generation = (permit >>> 2) << 32;
+        long current = halfOpenTrials.get();
+        while ((current & GENERATION_MASK) == generation && (int) current > 0) {
+            if (halfOpenTrials.compareAndSet(current, current - 1)) {
+                return;
+            }
+            current = halfOpenTrials.get();
+        }
+    }
+
+    /**
+     * permit 세대의 카운터를 1 올리고 올린 값을 반환함, 이미 halfOpenCalls 에 도달했으면 0
+     */
+    private int increment(AtomicLong counter, long permit) {
+        long generation = (permit >>> 2) << 32;
+        while (true) {
+            long current = counter.get();
+            int count = (current & GENERATION_MASK) == generation ? (int) current : 0;
+            if (count >= halfOpenCalls) {
+                return 0;
+            }
+            if (counter.compareAndSet(current, generation | (count + 1))) {
+                return count + 1;
+            }
+        }
+    }
+
+    /**
+     * 칸의 이전 결과를 새 결과로 바꾸고, 바뀐 만큼 합계를 고친 뒤 합계를 반환함
+     */
+    private long record(int outcome) {
+        int index = Math.floorMod(cursor.getAndIncrement(), windowSize);
+        int previous = outcomes.getAndSet(index, outcome);
+        long delta = 0;
+        if (previous == EMPTY) {
+            delta += ONE_CALL;
+        } else if (previous == FAILURE) {
+            delta -= ONE_FAILURE;
+        }
+        if (outcome == FAILURE) {
+            delta += ONE_FAILURE;
+        }
+        return delta == 0 ? totals.get() : totals.addAndGet(delta);
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            outcomes.set(i, EMPTY);
+        }
+        totals.set(0);
+    }
+
+    private void open(long expected) {
+        openedAt = nanoClock.getAsLong();
+        if (transition(expected, OPEN) != REJECTED) {
+            opened.increment();
+        }
+    }
+
+    /**
+     * expected 에서 다음 세대의 status 로 바꿈, 다른 스레드가 먼저 바꿨으면 REJECTED
+     */
+    private long transition(long expected, int status) {
+        long next = (((expected >>> 2) + 1) << 2) | status;
+        return phase.compareAndSet(expected, next) ? next : REJECTED;
+    }
+
+    private static int status(long phase) {
+        return (int) (phase & STATUS_MASK);
+    }
+
+    /**
+     * 테스트, 운영 도구에서 강제로 닫을 때 사용함
+     */
+    public void reset() {
+        clearWindow();
+        long current = phase.get();
+        while (status(current) != CLOSED && transition(current, CLOSED) == REJECTED) {
+            current = phase.get();
+        }
+    }
+
+    public Status getStatus() {
+        return Status.values()[status(phase.get())];
+    }
+
+    public int getWindowCalls() {
+        return (int) totals.get();
+    }
+
+    public int getWindowFailures() {
+        return (int) (totals.get() >>> 32);
+    }
+
+    public long getNotPermitted() {
+        return notPermitted.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    @Override
+    public String toString() {
+        long current = totals.get();
+        return "CircuitBreakerState{status=" + getStatus() + ", window=" + (int) (current >>> 32) + "/" + (int) current
+                + ", opened=" + getOpened() + ", notPermitted=" + getNotPermitted() + "}";
+    }
+}
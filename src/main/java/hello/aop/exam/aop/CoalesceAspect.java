@@ -0,0 +1,96 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Coalesce;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나로 합치는 에스팩트 (single flight)
+ * - 리더는 대상(과 안쪽 어드바이스)을 호출하고, 기다린 호출자들은 리더의 결과를 그대로 받거나 같은 예외를 받음
+ * - 다른 exam 애스펙트보다 바깥(@Order(0))에 적용되므로 재시도, 서킷 브레이커, 벌크헤드를 리더 한 번만 지나감
+ * - CompletionStage 를 반환하는 메서드는 리더가 반환한 future 를 함께 받고, future 가 완료될 때 자리를 비움
+ * - 키는 JoinPoints.args 로 인자 배열을 복사하지 않고 만듦 (InvocationKeys)
+ * - 리더가 대상을 호출하는 중에 같은 스레드에서 같은 키로 다시 호출하면 자기 결과를 기다리며 멈추므로 합치지 않고 그대로 호출함
+ */
+@Aspect
+@Order(0)
+public class CoalesceAspect {
+
+    private final ConcurrentMap<Method, Flights> flights = new ConcurrentHashMap<>();
+
+    @Around("@annotation(coalesce)")
+    public Object doCoalesce(ProceedingJoinPoint joinPoint, Coalesce coalesce) throws Throwable {
+        Flights method = flightsOf(joinPoint, coalesce);
+        Object key = method.keys.keyOf(JoinPoints.args(joinPoint));
+        SingleFlight.Flight flight = new SingleFlight.Flight();
+        SingleFlight.Flight existing = method.singleFlight.join(key, flight);
+        if (existing != null) {
+            return existing.isLedByCurrentThread() ? joinPoint.proceed() : await(existing);
+        }
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            flight.leaderReturned();
+            method.singleFlight.land(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flight.leaderReturned();
+        if (method.async && result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, ex) -> method.singleFlight.land(key, flight));
+        } else {
+            method.singleFlight.land(key, flight);
+        }
+        flight.complete(result);
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Throwable {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    /**
+     * 메서드의 합치기 통계를 반환함, 아직 호출된 적이 없으면 null
+     */
+    public SingleFlight getSingleFlight(Method method) {
+        Flights value = flights.get(method);
+        return value == null ? null : value.singleFlight;
+    }
+
+    private Flights flightsOf(ProceedingJoinPoint joinPoint, Coalesce coalesce) {
+        Method method = JoinPoints.method(joinPoint);
+        Flights value = flights.get(method);
+        if (value == null) {
+            value = flights.computeIfAbsent(method, m -> new Flights(m, coalesce));
+        }
+        return value;
+    }
+
+    private static final class Flights {
+
+        private final SingleFlight singleFlight = new SingleFlight();
+        private final InvocationKeys keys;
+        private final boolean async;
+
+        private Flights(Method method, Coalesce coalesce) {
+            this.keys = InvocationKeys.of(method, coalesce.keyArgs(), coalesce.keyExtractor());
+            this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        }
+    }
+}
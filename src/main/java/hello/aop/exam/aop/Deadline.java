@@ -0,0 +1,76 @@
+package hello.aop.exam.aop;
+
+import hello.aop.support.ThreadSupport;
+
+/**
+ * 스레드별 현재 마감 시각 (System.nanoTime 기준)
+ * - @Timeout 호출이 시작될 때 바깥 마감 시각과 자기 마감 시각 중 이른 쪽으로 바꾸고, 끝나면 되돌림
+ *   그래서 OrderService.orderItem -> OrderRepository.save 처럼 중첩된 호출은 바깥에 남은 시간만큼만 쓸 수 있음
+ * - 확인은 스레드 로컬 조회 한 번과 System.nanoTime() 한 번이므로 모든 어드바이스 호출에서 해도 부담이 적음
+ * - 대상 코드 안에서도 반복문 사이에 Deadline.check() 를 호출해서 남은 시간이 없으면 멈출 수 있음
+ * - 가상 스레드에서는 가장 바깥 호출이 끝날 때 스레드 로컬을 비움 (TraceContext 와 같음)
+ */
+public final class Deadline {
+
+    static final long NONE = Long.MAX_VALUE;
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >> 2;
+
+    private static final ThreadLocal<Holder> CURRENT = ThreadLocal.withInitial(Holder::new);
+
+    private Deadline() {
+    }
+
+    /**
+     * 남은 시간(ns), 마감 시각이 없으면 Long.MAX_VALUE, 지났으면 0 이하
+     */
+    public static long remainingNanos() {
+        long deadline = CURRENT.get().deadline;
+        return deadline == NONE ? NONE : deadline - System.nanoTime();
+    }
+
+    public static boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * 마감 시각이 지났으면 DeadlineExceededException 을 던짐
+     */
+    public static void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException("deadline exceeded");
+        }
+    }
+
+    static Holder holder() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 마감 시각이 없는 상태로 돌아왔을 때 호출함
+     */
+    static void release() {
+        if (ThreadSupport.isVirtual(Thread.currentThread())) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 현재 마감 시각 current 와 now + timeoutNanos 중 이른 쪽
+     * - nanoTime 은 넘칠 수 있으므로 두 시각은 뺄셈으로 비교함, 그래서 허용 시간은 MAX_TIMEOUT_NANOS 로 자름
+     */
+    static long earlier(long current, long now, long timeoutNanos) {
+        long own = now + Math.min(timeoutNanos, MAX_TIMEOUT_NANOS);
+        if (own == NONE) {
+            own--;
+        }
+        return current == NONE || own - current < 0 ? own : current;
+    }
+
+    static boolean isPast(long deadline, long now) {
+        return deadline != NONE && now - deadline >= 0;
+    }
+
+    static final class Holder {
+        long deadline = NONE;
+    }
+}
@@ -0,0 +1,12 @@
+package hello.aop.exam.aop;
+
+/**
+ * 마감 시각이 지나서 호출을 시작하지 않았거나 결과를 버렸을 때 던지는 예외
+ * - 부하가 몰려서 마감을 넘기기 시작하면 호출마다 던지므로 스택 트레이스를 만들지 않음
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,18 @@
+package hello.aop.exam.aop;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+/**
+ * 컴파일 타임 위빙(-PaopMode=ctw)에서 exam 애스펙트의 적용 순서
+ * - 스프링 AOP 에서는 @Order 로 같은 순서를 정함 (CachedAspect @Order(-1), CoalesceAspect @Order(0), RetryAspect @Order(1), CircuitBreakerAspect @Order(2),
+ *   TimeoutAspect @Order(3), BulkheadAspect @Order(4), TraceAspect 는 가장 안쪽)
+ * - RateLimitedAspect(@Order(-2)) 는 스프링 AOP 에서만 적용하므로 여기에 넣지 않음
+ * - 스프링 빈으로 등록하지 않으며 aop-ajc.xml 에만 등록함
+ */
+@Aspect
+@DeclarePrecedence("hello.aop.exam.aop.CachedAspect, hello.aop.exam.aop.CoalesceAspect, hello.aop.exam.aop.RetryAspect, "
+        + "hello.aop.exam.aop.CircuitBreakerAspect, hello.aop.exam.aop.TimeoutAspect, hello.aop.exam.aop.BulkheadAspect, "
+        + "hello.aop.exam.aop.TraceAspect")
+public class ExamAspectPrecedence {
+}
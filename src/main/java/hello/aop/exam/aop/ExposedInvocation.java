@@ -0,0 +1,79 @@
+package hello.aop.exam.aop;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.aop.ProxyMethodInvocation;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+/**
+ * ExposeInvocationInterceptor 로 다시 노출하기 위한 호출 정보
+ * - 메서드, 인수, 사용자 속성은 원래 호출(exposed)에 위임하고
+ * - proceed() 는 어드바이스가 받은 joinPoint 를 진행시켜서 현재 어드바이스 다음부터 체인을 실행함
+ */
+class ExposedInvocation implements ProxyMethodInvocation {
+
+    private final ProxyMethodInvocation exposed;
+    private final ProceedingJoinPoint joinPoint;
+
+    ExposedInvocation(ProxyMethodInvocation exposed, ProceedingJoinPoint joinPoint) {
+        this.exposed = exposed;
+        this.joinPoint = joinPoint;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        return joinPoint.proceed();
+    }
+
+    @Override
+    public Object getProxy() {
+        return exposed.getProxy();
+    }
+
+    @Override
+    public MethodInvocation invocableClone() {
+        return exposed.invocableClone();
+    }
+
+    @Override
+    public MethodInvocation invocableClone(Object... arguments) {
+        return exposed.invocableClone(arguments);
+    }
+
+    @Override
+    public void setArguments(Object... arguments) {
+        exposed.setArguments(arguments);
+    }
+
+    @Override
+    public void setUserAttribute(String key, Object value) {
+        exposed.setUserAttribute(key, value);
+    }
+
+    @Override
+    public Object getUserAttribute(String key) {
+        return exposed.getUserAttribute(key);
+    }
+
+    @Override
+    public Method getMethod() {
+        return exposed.getMethod();
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return exposed.getArguments();
+    }
+
+    @Override
+    public Object getThis() {
+        return exposed.getThis();
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+        return exposed.getStaticPart();
+    }
+}
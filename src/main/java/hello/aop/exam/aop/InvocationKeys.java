@@ -0,0 +1,128 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.KeyExtractor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 호출 인자로 키를 만드는 방법을 메서드별로 한 번만 정해 둔 것
+ * - 인자 하나가 키면 그 인자를 그대로 키로 사용함 (감싸는 객체, 배열을 만들지 않음)
+ * - 인자 여러 개가 키면 ArgsKey 로 감쌈, 모든 인자를 쓰면 호출의 인자 배열을 복사하지 않고 그대로 담음
+ *   (스프링 프록시는 호출마다 인자 배열을 새로 만들고 호출이 끝난 뒤에는 바꾸지 않음, JoinPoints.args 참고)
+ * - 배열 인자는 내용으로 비교하도록 ArgsKey 로 감쌈
+ * - ConcurrentHashMap 은 null 키를 허용하지 않으므로 null 은 NULL_KEY 로 바꿈
+ */
+final class InvocationKeys {
+
+    private static final Object NULL_KEY = new Object() {
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+
+    private final KeyExtractor extractor;
+    private final int[] keyArgs;
+    private final boolean allArgs;
+
+    private InvocationKeys(KeyExtractor extractor, int[] keyArgs, boolean allArgs) {
+        this.extractor = extractor;
+        this.keyArgs = keyArgs;
+        this.allArgs = allArgs;
+    }
+
+    static InvocationKeys of(Method method, int[] keyArgs, Class<? extends KeyExtractor> extractorType) {
+        if (extractorType != KeyExtractor.class) {
+            try {
+                return new InvocationKeys(extractorType.getDeclaredConstructor().newInstance(), null, false);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot create key extractor " + extractorType.getName() + " for " + method, e);
+            }
+        }
+        int parameterCount = method.getParameterCount();
+        for (int index : keyArgs) {
+            if (index < 0 || index >= parameterCount) {
+                throw new IllegalStateException("key argument index " + index + " out of range for " + method);
+            }
+        }
+        if (keyArgs.length == 0) {
+            int[] all = new int[parameterCount];
+            Arrays.setAll(all, i -> i);
+            return new InvocationKeys(null, all, true);
+        }
+        return new InvocationKeys(null, keyArgs.clone(), keyArgs.length == parameterCount && isIdentity(keyArgs));
+    }
+
+    private static boolean isIdentity(int[] keyArgs) {
+        for (int i = 0; i < keyArgs.length; i++) {
+            if (keyArgs[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Object keyOf(Object[] args) {
+        if (extractor != null) {
+            return nullSafe(extractor.extract(args));
+        }
+        switch (keyArgs.length) {
+            case 0:
+                return NULL_KEY;
+            case 1: {
+                Object arg = args[keyArgs[0]];
+                return arg != null && arg.getClass().isArray() ? new ArgsKey(new Object[]{arg}) : nullSafe(arg);
+            }
+            default:
+                if (allArgs) {
+                    return new ArgsKey(args);
+                }
+                Object[] values = new Object[keyArgs.length];
+                for (int i = 0; i < keyArgs.length; i++) {
+                    values[i] = args[keyArgs[i]];
+                }
+                return new ArgsKey(values);
+        }
+    }
+
+    private static Object nullSafe(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    /**
+     * 인자 여러 개로 만든 키, 배열 인자도 내용으로 비교함
+     */
+    static final class ArgsKey {
+
+        private final Object[] values;
+        private final int hash;
+
+        ArgsKey(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ArgsKey)) {
+                return false;
+            }
+            ArgsKey other = (ArgsKey) o;
+            return hash == other.hash && Arrays.deepEquals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.deepToString(values);
+        }
+    }
+}
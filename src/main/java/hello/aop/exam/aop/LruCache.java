@@ -0,0 +1,169 @@
+package hello.aop.exam.aop;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 크기가 정해진 동시성 캐시 (세그먼트별 LRU + TTL)
+ * - 키의 해시로 세그먼트를 고르고, 세그먼트마다 접근 순서 LinkedHashMap 과 ReentrantLock 을 하나씩 둠
+ *   서로 다른 세그먼트의 키는 서로 막지 않으므로 전역 락 하나보다 경합이 적음
+ * - 세그먼트가 자기 몫(maximumSize / 세그먼트 수)을 넘으면 가장 오래 사용하지 않은 항목을 버림
+ *   그래서 전체 크기는 maximumSize 를 넘지 않지만, 키가 한쪽 세그먼트에 몰리면 그보다 먼저 버릴 수 있음
+ * - ttlNanos 가 0 보다 크면 항목마다 만료 시각을 두고, 만료된 항목은 조회할 때 지우고 없는 것으로 봄
+ * - 조회 결과와 버린 수는 LongAdder 로 셈
+ */
+public class LruCache {
+
+    private final Segment[] segments;
+    private final int mask;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public LruCache(int maximumSize, long ttlNanos) {
+        this(maximumSize, ttlNanos, System::nanoTime);
+    }
+
+    public LruCache(int maximumSize, long ttlNanos, LongSupplier nanoClock) {
+        if (maximumSize < 1 || ttlNanos < 0) {
+            throw new IllegalArgumentException("maximumSize must be positive and ttlNanos >= 0");
+        }
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        int count = Math.min(stripes, Integer.highestOneBit(maximumSize));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count);
+        }
+        this.mask = count - 1;
+        this.ttlNanos = ttlNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 기억한 값, 없거나 만료되었으면 null
+     */
+    public Object get(Object key) {
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (ttlNanos > 0 && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+                segment.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(Object key, Object value) {
+        long expiresAt = ttlNanos > 0 ? nanoClock.getAsLong() + ttlNanos : 0;
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.put(key, new Entry(value, expiresAt));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "LruCache{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", expirations=" + getExpirations() + "}";
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 락을 잡은 상태에서만 사용함
+     */
+    private final class Segment extends LinkedHashMap<Object, Entry> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
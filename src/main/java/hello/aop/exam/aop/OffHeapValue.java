@@ -0,0 +1,95 @@
+package hello.aop.exam.aop;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 힙 밖(direct ByteBuffer)에 저장한 캐시 값
+ * - 큰 결과를 오래 기억해도 힙과 GC 가 훑어야 하는 객체 그래프가 커지지 않음
+ * - String 은 UTF-8, byte[] 는 그대로, 나머지 Serializable 은 자바 직렬화로 바이트를 만듦
+ * - 꺼낼 때마다 바이트를 읽어서 새 객체를 만들므로 호출자가 결과를 바꿔도 캐시에는 영향이 없음
+ * - 버퍼 메모리는 캐시에서 버려진 뒤 GC 가 OffHeapValue 를 정리할 때 함께 반환됨
+ */
+final class OffHeapValue {
+
+    private static final byte STRING = 0;
+    private static final byte BYTES = 1;
+    private static final byte SERIALIZED = 2;
+
+    private final byte type;
+    private final ByteBuffer buffer;
+
+    private OffHeapValue(byte type, byte[] bytes) {
+        this.type = type;
+        this.buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        this.buffer.flip();
+    }
+
+    /**
+     * minBytes 이상이면 힙 밖에 저장한 값을, 작거나 저장할 수 없는 타입이면 value 를 그대로 반환함
+     */
+    static Object encode(Object value, int minBytes) {
+        if (value instanceof String) {
+            String string = (String) value;
+            if (string.length() * 3L < minBytes) {
+                return value;
+            }
+            return wrap(STRING, string.getBytes(StandardCharsets.UTF_8), value, minBytes);
+        }
+        if (value instanceof byte[]) {
+            return wrap(BYTES, (byte[]) value, value, minBytes);
+        }
+        if (value instanceof Serializable) {
+            return wrap(SERIALIZED, serialize(value), value, minBytes);
+        }
+        return value;
+    }
+
+    private static Object wrap(byte type, byte[] bytes, Object value, int minBytes) {
+        return bytes.length < minBytes ? value : new OffHeapValue(type, bytes);
+    }
+
+    Object decode() {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        switch (type) {
+            case STRING:
+                return new String(bytes, StandardCharsets.UTF_8);
+            case BYTES:
+                return bytes;
+            default:
+                return deserialize(bytes);
+        }
+    }
+
+    int size() {
+        return buffer.capacity();
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package hello.aop.exam.aop;
+
+/**
+ * 호출 속도 한도를 넘어서 대상을 호출하지 않고 거절할 때 던지는 예외
+ */
+public class RateLimitExceededException extends CallRejectedException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,113 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.KeyExtractor;
+import hello.aop.exam.annotation.RateLimited;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호출 속도를 제한하는 에스팩트
+ * - 메서드마다 RateLimiter 를 하나씩 두고, keyArgs 를 지정하면 인자 값마다 따로 제한함 (InvocationKeys)
+ * - permitsArg 를 지정하면 그 인자의 크기만큼 한도를 한꺼번에 가져감 (배치 호출이 한도를 한 번만 차지하지 않도록)
+ * - 거절은 로그를 남기지 않고 카운터(RateLimiter.getRejected)만 올림, 예외도 메서드마다 하나를 재사용함
+ * - 다른 exam 애스펙트보다 바깥(@Order(-2))에 적용되므로 거절된 호출은 캐시, 재시도, 서킷 브레이커를 지나지 않음
+ *   캐시에서 바로 돌려줄 수 있는 호출도 한도를 차지함
+ * - 스프링 프록시로만 적용함 (aop-ajc.xml 에 넣지 않음)
+ *   컴파일 타임 위빙은 JVM 전체에 적용되므로 같은 키를 빠르게 반복 호출하는 벤치마크, 테스트가 모두 한도에 걸리기 때문
+ */
+@Aspect
+@Order(-2)
+public class RateLimitedAspect {
+
+    private final ConcurrentMap<Method, Limit> limits = new ConcurrentHashMap<>();
+
+    @Around("@annotation(rateLimited)")
+    public Object doRateLimit(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        Limit limit = limitOf(joinPoint, rateLimited);
+        Object[] args = JoinPoints.args(joinPoint);
+        int permits = limit.permitsOf(args);
+        boolean permitted = limit.keys == null
+                ? limit.limiter.tryAcquire(permits)
+                : limit.limiter.tryAcquire(limit.keys.keyOf(args), permits);
+        if (!permitted) {
+            throw limit.exceededException;
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 메서드에 적용된 속도 한도를 반환함, 아직 호출된 적이 없으면 null
+     */
+    public RateLimiter getLimiter(Method method) {
+        Limit limit = limits.get(method);
+        return limit == null ? null : limit.limiter;
+    }
+
+    private Limit limitOf(ProceedingJoinPoint joinPoint, RateLimited rateLimited) {
+        Method method = JoinPoints.method(joinPoint);
+        Limit limit = limits.get(method);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(method, m -> new Limit(m, rateLimited));
+        }
+        return limit;
+    }
+
+    private static final class Limit {
+
+        private final RateLimiter limiter;
+        private final InvocationKeys keys;
+        private final int permitsArg;
+        private final RateLimitExceededException exceededException;
+
+        private Limit(Method method, RateLimited rateLimited) {
+            this.limiter = new RateLimiter(rateLimited.permitsPerSecond(), rateLimited.burst(),
+                    TimeUnit.MILLISECONDS.toNanos(rateLimited.idleMillis()), rateLimited.maxKeys());
+            this.keys = rateLimited.keyArgs().length == 0 ? null : InvocationKeys.of(method, rateLimited.keyArgs(), KeyExtractor.class);
+            this.permitsArg = checkPermitsArg(method, rateLimited.permitsArg());
+            this.exceededException = new RateLimitExceededException(
+                    "rate limit exceeded: " + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        }
+
+        private static int checkPermitsArg(Method method, int index) {
+            if (index < 0) {
+                return -1;
+            }
+            if (index >= method.getParameterCount()) {
+                throw new IllegalStateException("permits argument index " + index + " out of range for " + method);
+            }
+            Class<?> type = method.getParameterTypes()[index];
+            if (!Collection.class.isAssignableFrom(type) && !type.isArray() && type != int.class && type != long.class
+                    && type != Integer.class && type != Long.class) {
+                throw new IllegalStateException("permits argument must be a collection, an array or an integer: " + method);
+            }
+            return index;
+        }
+
+        /**
+         * 이번 호출이 가져갈 한도 수, null 인자는 하나
+         */
+        private int permitsOf(Object[] args) {
+            if (permitsArg < 0) {
+                return 1;
+            }
+            Object arg = args[permitsArg];
+            if (arg instanceof Collection) {
+                return ((Collection<?>) arg).size();
+            }
+            if (arg instanceof Number) {
+                return (int) Math.min(Integer.MAX_VALUE, ((Number) arg).longValue());
+            }
+            return arg == null ? 1 : Array.getLength(arg);
+        }
+    }
+}
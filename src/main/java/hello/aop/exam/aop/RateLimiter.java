@@ -0,0 +1,227 @@
+package hello.aop.exam.aop;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 메서드 하나의 호출 속도 한도 (락 없는 토큰 버킷)
+ *
+ * 버킷 (GCRA)
+ * - 토큰 수와 마지막 충전 시각 대신 "다음 호출이 허용되는 이론상 시각(tat)" 하나만 저장함
+ * - permits 개를 허용하면 tat 를 interval * permits 만큼 뒤로 미루고, 미룬 tat 가 지금보다 interval * burst 넘게 앞서면 거절함
+ *   (permits = 1 이면 tat 가 지금보다 interval * (burst - 1) 넘게 앞서 있으면 거절)
+ *   그래서 허용은 CAS 한 번, 거절은 volatile 읽기 한 번으로 끝남 (거절이 몰려도 캐시 라인을 쓰지 않음)
+ * - burst 보다 많은 permits 는 버킷이 가득 차도 허용할 수 없으므로 바로 거절함 (한 번에 가져갈 수 있는 양의 상한)
+ * - tat 가 지금보다 과거인 버킷은 가득 찬 새 버킷과 같으므로 지워도 한도가 달라지지 않음
+ *
+ * 키별 버킷과 정리
+ * - 키별 버킷은 ConcurrentHashMap 에 두고, 버킷 객체는 long 필드 하나만 가짐 (AtomicLongFieldUpdater)
+ * - idleNanos 마다 한 번 공용 ForkJoinPool 에서 맵을 훑어서 idleNanos 동안 가득 차 있던 버킷을 지움 (호출한 스레드는 기다리지 않음)
+ *   지우기 전에 tat 를 EVICTED 로 CAS 해서, 지우는 순간 그 버킷을 잡고 있던 호출은 맵에서 새 버킷을 다시 찾음
+ * - 키가 maxKeys 개에 이르면 새 키는 버킷을 만들지 않고 하나의 공용 버킷(overflow)을 나눠 씀
+ *   한도를 피하려고 키를 계속 바꾸는 호출자가 메모리를 늘리지 못하고, 그렇다고 새 키의 정상 호출을 모두 거절하지도 않음
+ */
+public class RateLimiter {
+
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final int burst;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long idleNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    private final Bucket bucket;
+    private final Bucket overflow;
+    private final ConcurrentHashMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    public RateLimiter(double permitsPerSecond, int burst, long idleNanos, int maxKeys) {
+        this(permitsPerSecond, burst, idleNanos, maxKeys, System::nanoTime);
+    }
+
+    public RateLimiter(double permitsPerSecond, int burst, long idleNanos, int maxKeys, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1 || idleNanos <= 0 || maxKeys < 1) {
+            throw new IllegalArgumentException("permitsPerSecond, burst, idleNanos, maxKeys must be positive");
+        }
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.idleNanos = idleNanos;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.bucket = new Bucket(now);
+        this.overflow = new Bucket(now);
+        this.nextSweep = new AtomicLong(now + idleNanos);
+    }
+
+    /**
+     * 메서드 전체의 한도에서 하나를 가져감
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * 메서드 전체의 한도에서 permits 개를 한꺼번에 가져감 (1 보다 작으면 1)
+     */
+    public boolean tryAcquire(int permits) {
+        if (permits > burst) {
+            return count(false);
+        }
+        return count(bucket.tryAcquire(nanoClock.getAsLong(), costOf(permits), burstNanos) == Bucket.PERMITTED);
+    }
+
+    /**
+     * key 의 한도에서 하나를 가져감
+     */
+    public boolean tryAcquire(Object key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * key 의 한도에서 permits 개를 한꺼번에 가져감 (1 보다 작으면 1)
+     */
+    public boolean tryAcquire(Object key, int permits) {
+        if (permits > burst) {
+            return count(false);
+        }
+        long cost = costOf(permits);
+        long now = nanoClock.getAsLong();
+        maybeSweep(now);
+        while (true) {
+            Bucket current = buckets.get(key);
+            if (current == null) {
+                if (buckets.mappingCount() >= maxKeys) {
+                    overflowed.increment();
+                    return count(overflow.tryAcquire(now, cost, burstNanos) == Bucket.PERMITTED);
+                }
+                Bucket created = new Bucket(now);
+                current = buckets.putIfAbsent(key, created);
+                if (current == null) {
+                    current = created;
+                }
+            }
+            int result = current.tryAcquire(now, cost, burstNanos);
+            if (result != Bucket.EVICTED) {
+                return count(result == Bucket.PERMITTED);
+            }
+            buckets.remove(key, current);
+        }
+    }
+
+    private long costOf(int permits) {
+        return intervalNanos * Math.max(1, permits);
+    }
+
+    private boolean count(boolean permit) {
+        if (permit) {
+            permitted.increment();
+        } else {
+            rejected.increment();
+        }
+        return permit;
+    }
+
+    private void maybeSweep(long now) {
+        long next = nextSweep.get();
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + idleNanos)) {
+            ForkJoinPool.commonPool().execute(this::sweep);
+        }
+    }
+
+    /**
+     * idleNanos 동안 가득 차 있던 버킷을 지움
+     */
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        Iterator<Map.Entry<Object, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Bucket> entry = iterator.next();
+            if (entry.getValue().evictIfIdle(now, idleNanos)) {
+                buckets.remove(entry.getKey(), entry.getValue());
+                evicted.increment();
+            }
+        }
+    }
+
+    public int getKeys() {
+        return buckets.size();
+    }
+
+    public long getPermitted() {
+        return permitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * 키가 maxKeys 개에 이르러 공용 버킷을 쓴 호출 수
+     */
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{keys=" + getKeys() + ", permitted=" + getPermitted() + ", rejected=" + getRejected()
+                + ", evicted=" + getEvicted() + ", overflowed=" + getOverflowed() + "}";
+    }
+
+    static final class Bucket {
+
+        static final int PERMITTED = 0;
+        static final int REJECTED = 1;
+        static final int EVICTED = 2;
+
+        private static final AtomicLongFieldUpdater<Bucket> TAT = AtomicLongFieldUpdater.newUpdater(Bucket.class, "tat");
+
+        private volatile long tat;
+
+        Bucket(long now) {
+            this.tat = now;
+        }
+
+        int tryAcquire(long now, long costNanos, long burstNanos) {
+            while (true) {
+                long current = tat;
+                if (current == RateLimiter.EVICTED) {
+                    return EVICTED;
+                }
+                long base = current - now < 0 ? now : current;
+                long next = base + costNanos;
+                if (next - now > burstNanos) {
+                    return REJECTED;
+                }
+                if (TAT.compareAndSet(this, current, next)) {
+                    return PERMITTED;
+                }
+            }
+        }
+
+        boolean evictIfIdle(long now, long idleNanos) {
+            long current = tat;
+            return current != RateLimiter.EVICTED && now - current >= idleNanos && TAT.compareAndSet(this, current, RateLimiter.EVICTED);
+        }
+    }
+}
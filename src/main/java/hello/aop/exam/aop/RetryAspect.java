@@ -1,36 +1,326 @@
 package hello.aop.exam.aop;
 
 import hello.aop.exam.annotation.Retry;
+import hello.aop.logging.AspectLog;
+import hello.aop.support.JoinPoints;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
 
 @Slf4j
 @Aspect
+@Order(1)
 public class RetryAspect {
 
+    private final ConcurrentMap<Method, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RetryBudget> sharedBudgets = new ConcurrentHashMap<>();
+
     /**
      * 재시도하는 에스팩트
      * - @annotation(retry), Retry retry 를 사용해서 어드바이스에 애노테이션을 파라미터로 전달함
      * - retry.value() 를 통해서 애노테이션에 지정한 값을 가져올 수 있음
      * - 예외가 발생해서 결과가 정상 반환되지 않으면 retry.value() 만틈 재시도함
+     * - 대부분의 호출은 첫 시도에 성공하므로 첫 시도는 로그 없이 바로 호출함 (시그니처 문자열, 가변인자 배열을 만들지 않음)
+     *   재시도 관련 로그와 카운트는 첫 실패가 발생한 이후에만 시작함
+     * - 재시도 사이에는 backoff 만큼 기다리고, 재시도 예산(RetryBudget)이 바닥나면 더 이상 재시도하지 않음
+     * - 호출할 때의 마감 시각(Deadline)이 지났거나, backoff 를 기다리는 동안 지나게 되면 더 이상 재시도하지 않고 마지막 예외를 던짐
+     *   (안쪽 @Timeout 의 시도별 허용 시간을 넘긴 DeadlineExceededException 은 바깥 마감 시각이 남아 있으면 재시도함)
+     * - CompletableFuture(CompletionStage) 를 반환하는 메서드는 결과 future 에 이어 붙여서 재시도함 (doRetryAsync)
+     * - @CircuitBreaker 보다 바깥에 적용되도록 @Order(1) 을 사용함, 브레이커, 벌크헤드가 거절한 호출(CallRejectedException)은 재시도하지 않음
      */
     @Around("@annotation(retry)")
     public Object doRetry(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
-        log.info("[retry] {} retry={}", joinPoint.getSignature(), retry);
+        RetryPolicy policy = policyOf(joinPoint, retry);
+        policy.onRequest();
+        if (policy.isAsync()) {
+            return doRetryAsync(joinPoint, retry, policy);
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (Exception e) {
+            return retry(joinPoint, retry, policy, e);
+        }
+    }
+
+    private Object retry(ProceedingJoinPoint joinPoint, Retry retry, RetryPolicy policy, Exception firstException) throws Throwable {
+        AspectLog.info(log, "[retry] {} retry={}", joinPoint.getSignature(), retry);
 
-        int maxRetry = retry.value();
-        Exception exceptionHolder = null;
+        int maxRetry = policy.getMaxAttempts();
+        long deadline = Deadline.holder().deadline;
+        Exception exceptionHolder = firstException;
 
-        for(int retryCount = 1; retryCount <= maxRetry; retryCount++){
-            try{
-                log.info("[retry] try count={}/{}", retryCount, maxRetry);
+        for (int retryCount = 2; retryCount <= maxRetry; retryCount++) {
+            if (!policy.isRetryable(exceptionHolder)) {
+                break;
+            }
+            long delayMillis = delayWithin(policy.delayMillis(retryCount - 1), deadline);
+            if (delayMillis < 0) {
+                AspectLog.info(log, "[retry] deadline exceeded {}", joinPoint.getSignature());
+                break;
+            }
+            if (!policy.tryAcquireRetry()) {
+                AspectLog.info(log, "[retry] budget exhausted {}", policy.getBudget());
+                break;
+            }
+            if (!sleep(delayMillis)) {
+                break;
+            }
+            try {
+                AspectLog.info(log, "[retry] try count={}/{}", retryCount, maxRetry);
                 return joinPoint.proceed();
-            }catch (Exception e){
+            } catch (Exception e) {
                 exceptionHolder = e;
             }
         }
         throw exceptionHolder;
     }
+
+    /**
+     * 비동기 재시도
+     * - 첫 시도가 이미 정상 완료된 future 를 반환하면 그대로 돌려줌
+     * - 실패하면 호출자에게는 새 CompletableFuture 를 돌려주고, 실패한 future 에 이어서 다음 시도를 연결함
+     * - 대기 시간은 Thread.sleep 대신 RetryScheduler 에 예약하므로 기다리는 동안 스레드를 차지하지 않음
+     * - 호출자가 돌려받은 future 를 취소하면 진행 중인 시도의 future 나 예약된 다음 시도도 취소하고 더 시도하지 않음
+     * - 다음 시도는 다른 스레드에서 실행되므로 마감 시각은 호출할 때 읽어 둔 값으로 확인함
+     */
+    private Object doRetryAsync(ProceedingJoinPoint joinPoint, Retry retry, RetryPolicy policy) {
+        long deadline = Deadline.holder().deadline;
+        Callable<Object> invoker = invokerOf(joinPoint);
+        CompletionStage<?> first;
+        try {
+            first = (CompletionStage<?>) invoker.call();
+        } catch (Exception e) {
+            first = CompletableFuture.failedFuture(e);
+        }
+        if (first == null || isCompletedNormally(first)) {
+            return first;
+        }
+        AsyncAttempts attempts = new AsyncAttempts(joinPoint, retry, policy, invoker, deadline);
+        attempts.whenAttemptDone(first, 1);
+        return attempts.result;
+    }
+
+    /**
+     * 비동기 재시도 한 번의 진행 상태
+     * - pending : 진행 중인 시도의 future 또는 RetryScheduler 에 예약된 다음 시도, result 가 취소되면 함께 취소함
+     */
+    private final class AsyncAttempts {
+
+        private final ProceedingJoinPoint joinPoint;
+        private final Retry retry;
+        private final RetryPolicy policy;
+        private final Callable<Object> invoker;
+        private final long deadline;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile Future<?> pending;
+
+        private AsyncAttempts(ProceedingJoinPoint joinPoint, Retry retry, RetryPolicy policy, Callable<Object> invoker, long deadline) {
+            this.joinPoint = joinPoint;
+            this.retry = retry;
+            this.policy = policy;
+            this.invoker = invoker;
+            this.deadline = deadline;
+            result.whenComplete((value, ex) -> {
+                if (result.isCancelled()) {
+                    cancelPending();
+                }
+            });
+        }
+
+        /**
+         * pending 을 바꾼 뒤에 취소 여부를 확인하므로, 취소와 동시에 시작한 시도도 놓치지 않고 취소됨
+         */
+        private void track(Future<?> future) {
+            pending = future;
+            if (result.isCancelled()) {
+                cancelPending();
+            }
+        }
+
+        private void cancelPending() {
+            Future<?> future = pending;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        private void attempt(int attempt) {
+            if (result.isDone()) {
+                return;
+            }
+            CompletionStage<?> stage;
+            try {
+                stage = (CompletionStage<?>) invoker.call();
+            } catch (Exception e) {
+                onFailure(attempt, e);
+                return;
+            }
+            if (stage == null) {
+                result.complete(null);
+                return;
+            }
+            whenAttemptDone(stage, attempt);
+        }
+
+        private void whenAttemptDone(CompletionStage<?> stage, int attempt) {
+            if (stage instanceof Future) {
+                track((Future<?>) stage);
+            }
+            stage.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else {
+                    onFailure(attempt, unwrap(ex));
+                }
+            });
+        }
+
+        private void onFailure(int attempt, Throwable ex) {
+            if (result.isDone()) {
+                return;
+            }
+            if (attempt >= policy.getMaxAttempts() || !(ex instanceof Exception) || !policy.isRetryable(ex)) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            long delayMillis = delayWithin(policy.delayMillis(attempt), deadline);
+            if (delayMillis < 0) {
+                AspectLog.info(log, "[retry] deadline exceeded {}", joinPoint.getSignature());
+                result.completeExceptionally(ex);
+                return;
+            }
+            if (!policy.tryAcquireRetry()) {
+                AspectLog.info(log, "[retry] budget exhausted {}", policy.getBudget());
+                result.completeExceptionally(ex);
+                return;
+            }
+            if (attempt == 1) {
+                AspectLog.info(log, "[retry] {} retry={}", joinPoint.getSignature(), retry);
+            }
+            int nextAttempt = attempt + 1;
+            Runnable next = () -> {
+                AspectLog.info(log, "[retry] try count={}/{}", nextAttempt, policy.getMaxAttempts());
+                attempt(nextAttempt);
+            };
+            if (delayMillis == 0) {
+                next.run();
+            } else {
+                track(RetryScheduler.schedule(next, delayMillis));
+            }
+        }
+    }
+
+    /**
+     * 다음 시도는 다른 스레드(RetryScheduler, future 를 완료한 스레드)에서 실행될 수 있음
+     * 스프링 프록시의 뒤쪽 어드바이스들은 ExposeInvocationInterceptor 의 스레드 로컬에서 현재 호출을 찾으므로
+     * 시도할 때마다 현재 호출을 다시 노출한 상태에서 joinPoint.proceed() 를 실행함 (스프링 프록시가 아니면 그대로 실행)
+     */
+    private Callable<Object> invokerOf(ProceedingJoinPoint joinPoint) {
+        ProxyMethodInvocation invocation = currentInvocation();
+        if (invocation == null) {
+            return () -> proceed(joinPoint);
+        }
+        return () -> {
+            try {
+                return ExposeInvocationInterceptor.INSTANCE.invoke(new ExposedInvocation(invocation, joinPoint));
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return joinPoint.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static ProxyMethodInvocation currentInvocation() {
+        try {
+            Object invocation = ExposeInvocationInterceptor.currentInvocation();
+            return invocation instanceof ProxyMethodInvocation ? (ProxyMethodInvocation) invocation : null;
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static boolean isCompletedNormally(CompletionStage<?> stage) {
+        if (!(stage instanceof CompletableFuture)) {
+            return false;
+        }
+        CompletableFuture<?> future = (CompletableFuture<?>) stage;
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * 메서드에 적용된 재시도 예산을 반환함, 예산을 사용하지 않으면 null
+     */
+    public RetryBudget getBudget(Method method) {
+        RetryPolicy policy = policies.get(method);
+        return policy == null ? null : policy.getBudget();
+    }
+
+    private RetryPolicy policyOf(ProceedingJoinPoint joinPoint, Retry retry) {
+        Method method = JoinPoints.method(joinPoint);
+        RetryPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, m -> new RetryPolicy(m, retry, budgetOf(retry)));
+        }
+        return policy;
+    }
+
+    private RetryBudget budgetOf(Retry retry) {
+        if (retry.budgetRatio() <= 0) {
+            return null;
+        }
+        if (retry.budget().isEmpty()) {
+            return new RetryBudget(retry.budgetRatio(), retry.budgetReserve());
+        }
+        return sharedBudgets.computeIfAbsent(retry.budget(), name -> new RetryBudget(retry.budgetRatio(), retry.budgetReserve()));
+    }
+
+    /**
+     * backoff 를 기다린 뒤에도 마감 시각이 남아 있으면 기다릴 시간(ms), 이미 지났거나 기다리는 동안 지나면 -1
+     * - 마감 시각이 지난 뒤의 시도는 안쪽 @Timeout 에서 바로 실패하므로 기다리지 않고 마지막 예외로 끝냄
+     */
+    private static long delayWithin(long delayMillis, long deadline) {
+        if (deadline == Deadline.NONE) {
+            return delayMillis;
+        }
+        long remainingNanos = deadline - System.nanoTime();
+        return remainingNanos > TimeUnit.MILLISECONDS.toNanos(delayMillis) ? delayMillis : -1;
+    }
+
+    private boolean sleep(long delayMillis) {
+        if (delayMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(delayMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
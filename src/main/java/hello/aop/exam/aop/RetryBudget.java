@@ -0,0 +1,81 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재시도 예산 (토큰 버킷)
+ * - 요청이 들어올 때마다 ratio 만큼 토큰을 채우고, 재시도할 때마다 토큰 1개를 사용함
+ * - 토큰은 reserve 개를 넘게 쌓이지 않으므로 재시도 횟수는 reserve + ratio * 요청 수 를 넘지 못함
+ * - 실패율이 ratio 를 넘어서면 토큰이 바닥나고 재시도를 멈춤 => 하위 시스템 장애가 재시도 폭주로 커지는 것을 막음
+ * - 토큰은 정수 연산을 위해 SCALE 배 해서 저장함
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryBudget(double ratio, int reserve) {
+        if (ratio <= 0 || reserve < 0) {
+            throw new IllegalArgumentException("ratio must be > 0 and reserve >= 0");
+        }
+        this.deposit = Math.max(1, (long) (ratio * SCALE));
+        this.maxBalance = Math.max(SCALE, reserve * SCALE);
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * 첫 시도마다 호출됨, 토큰이 가득 차 있으면 CAS 없이 읽기만 하고 끝남
+     */
+    public void onRequest() {
+        requests.increment();
+        long current = balance.get();
+        while (current < maxBalance) {
+            long next = Math.min(maxBalance, current + deposit);
+            if (balance.compareAndSet(current, next)) {
+                return;
+            }
+            current = balance.get();
+        }
+    }
+
+    /**
+     * 재시도 전에 호출됨, 토큰이 없으면 false 를 반환하고 재시도하지 않음
+     */
+    public boolean tryRetry() {
+        long current = balance.get();
+        while (current >= SCALE) {
+            if (balance.compareAndSet(current, current - SCALE)) {
+                retries.increment();
+                return true;
+            }
+            current = balance.get();
+        }
+        exhausted.increment();
+        return false;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{requests=" + getRequests() + ", retries=" + getRetries() + ", exhausted=" + getExhausted() + "}";
+    }
+}
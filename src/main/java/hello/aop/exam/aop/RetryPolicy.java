@@ -0,0 +1,98 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Retry;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @Retry 애노테이션 값을 메서드별로 한 번만 해석해 둔 것
+ */
+class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long backoff;
+    private final double multiplier;
+    private final long maxBackoff;
+    private final double jitter;
+    private final Class<? extends Throwable>[] retryFor;
+    private final Class<? extends Throwable>[] noRetryFor;
+    private final RetryBudget budget;
+    private final boolean async;
+
+    RetryPolicy(Method method, Retry retry, RetryBudget budget) {
+        this.maxAttempts = retry.value();
+        this.backoff = retry.backoff();
+        this.multiplier = retry.multiplier();
+        this.maxBackoff = retry.maxBackoff();
+        this.jitter = Math.min(1.0, Math.max(0.0, retry.jitter()));
+        this.retryFor = retry.retryFor();
+        this.noRetryFor = retry.noRetryFor();
+        this.budget = budget;
+        Class<?> returnType = method.getReturnType();
+        this.async = CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * CompletableFuture 로 결과를 대신 돌려줄 수 있는 비동기 반환 타입 (CompletionStage, CompletableFuture) 인지 여부
+     */
+    boolean isAsync() {
+        return async;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    RetryBudget getBudget() {
+        return budget;
+    }
+
+    void onRequest() {
+        if (budget != null) {
+            budget.onRequest();
+        }
+    }
+
+    boolean isRetryable(Throwable e) {
+        if (e instanceof CallRejectedException) {
+            return false;
+        }
+        for (Class<? extends Throwable> type : noRetryFor) {
+            if (type.isInstance(e)) {
+                return false;
+            }
+        }
+        if (retryFor.length == 0) {
+            return true;
+        }
+        for (Class<? extends Throwable> type : retryFor) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean tryAcquireRetry() {
+        return budget == null || budget.tryRetry();
+    }
+
+    /**
+     * @param retryCount 1 부터 시작하는 재시도 순번
+     * @return 재시도 전에 기다릴 시간(ms)
+     */
+    long delayMillis(int retryCount) {
+        if (backoff <= 0) {
+            return 0;
+        }
+        double exponential = backoff * Math.pow(multiplier, retryCount - 1);
+        long delay = (long) Math.min(maxBackoff, exponential);
+        if (jitter > 0 && delay > 0) {
+            delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+        return delay;
+    }
+}
@@ -0,0 +1,27 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 재시도의 대기 시간을 처리하는 공용 스케줄러
+ * - 스레드를 재우지 않고 지연 작업으로 다음 시도를 예약하므로 대기 중인 재시도는 스레드를 차지하지 않음
+ * - 데몬 스레드 하나만 사용하고, 처음 사용할 때 만들어짐
+ */
+final class RetryScheduler {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "retry-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private RetryScheduler() {
+    }
+
+    static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return SCHEDULER.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
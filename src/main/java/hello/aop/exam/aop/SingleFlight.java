@@ -0,0 +1,80 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 진행 중인 호출 (키 -> 결과를 받을 future)
+ * - 처음 들어온 호출(리더)만 putIfAbsent 로 자리를 잡고 대상을 호출함, 같은 키로 들어온 호출은 리더의 future 를 기다림
+ * - ConcurrentHashMap 은 조회에 락을 잡지 않고, 빈 칸에 넣을 때는 CAS 로 넣으므로 키가 겹치지 않으면 서로 막지 않음
+ * - 리더는 끝나면 자리를 먼저 비우고 결과를 넘김, 그래서 결과가 나온 뒤에 들어온 호출은 새로 대상을 호출함
+ * - 리더가 대상을 호출하는 동안 같은 스레드에서 같은 키로 다시 들어오면(재진입) 자기 결과를 기다리게 되므로 합치지 않고 대상을 호출함
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * 자리를 잡았으면 null, 이미 진행 중인 호출이 있으면 그 호출의 future
+     * 진행 중인 호출의 리더가 지금 스레드면(재진입) 합치지 않으므로 대상 호출 수로 셈
+     */
+    Flight join(Object key, Flight flight) {
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null || existing.isLedByCurrentThread()) {
+            invocations.increment();
+        } else {
+            coalesced.increment();
+        }
+        return existing;
+    }
+
+    void land(Object key, Flight flight) {
+        inFlight.remove(key, flight);
+    }
+
+    /**
+     * 대상을 실제로 호출한 수
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * 다른 호출의 결과를 받아서 대상을 호출하지 않은 수
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * 진행 중인 호출 하나의 결과, 리더가 대상을 호출하는 동안은 리더 스레드를 기억함
+     */
+    static final class Flight extends CompletableFuture<Object> {
+
+        private volatile Thread leader = Thread.currentThread();
+
+        boolean isLedByCurrentThread() {
+            return leader == Thread.currentThread();
+        }
+
+        /**
+         * 리더가 대상 호출에서 돌아옴, 이후 같은 스레드에서 들어온 호출은 다른 호출처럼 결과를 기다림
+         */
+        void leaderReturned() {
+            leader = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlight{invocations=" + getInvocations() + ", coalesced=" + getCoalesced() + ", inFlight=" + getInFlight() + "}";
+    }
+}
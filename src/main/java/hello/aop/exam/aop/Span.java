@@ -0,0 +1,62 @@
+package hello.aop.exam.aop;
+
+/**
+ * @Trace 호출 하나의 구간 정보
+ * - TraceContext 가 스레드마다 미리 만들어 둔 객체를 재사용하므로 호출마다 새로 만들지 않음
+ * - 이름은 AdviceMetadata 에 미리 만들어 둔 문자열을 그대로 참조함
+ */
+public class Span {
+
+    private long traceId;
+    private int spanId;
+    private int parentSpanId;
+    private int depth;
+    private String name;
+    private long startNanos;
+    private long durationNanos;
+    private boolean failed;
+
+    void start(long traceId, int spanId, int parentSpanId, int depth, String name, long startNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.depth = depth;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.durationNanos = -1;
+        this.failed = false;
+    }
+
+    void end(long endNanos, boolean failed) {
+        this.durationNanos = endNanos - startNanos;
+        this.failed = failed;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getSpanId() {
+        return spanId;
+    }
+
+    public int getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
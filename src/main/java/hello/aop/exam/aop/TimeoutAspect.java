@@ -0,0 +1,195 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Timeout;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 마감 시각을 적용하는 에스팩트
+ * - 호출이 시작될 때 Deadline 의 마감 시각을 바깥 마감 시각과 자기 허용 시간 중 이른 쪽으로 바꾸고, 끝나면 되돌림
+ * - 이미 마감 시각이 지났으면 대상을 호출하지 않고 바로 DeadlineExceededException 을 던짐
+ *   (ex) OrderService.orderItem 이 마감 시각을 다 쓰면 그 안의 OrderRepository.save 는 실행되지 않음
+ * - 동기 메서드는 호출하기 전과 대상 안의 Deadline.check() 에서만 마감 시각을 적용함
+ *   대상이 끝난 뒤에 마감 시각이 지났어도 이미 끝난 작업(ex. 커밋된 쓰기)의 결과이므로 버리지 않고 돌려주며, 늦은 호출로만 셈 (getLate)
+ *   interrupt = true 면 마감 시각에 호출한 스레드를 인터럽트해서 막혀 있는 대기를 깨우고, 인터럽트로 실패한 호출은 DeadlineExceededException 으로 바꿈
+ * - CompletionStage 를 반환하는 메서드는 마감 시각에 결과 future 를 DeadlineExceededException 으로 끝내고 원래 작업을 취소함
+ * - 순서는 RetryAspect(1), CircuitBreakerAspect(2) 안쪽(@Order(3))이므로 재시도마다 허용 시간이 새로 주어지고(바깥 마감은 유지),
+ *   마감을 넘긴 호출은 서킷 브레이커에 실패로 기록됨
+ */
+@Aspect
+@Order(3)
+public class TimeoutAspect {
+
+    private static final int RUNNING = 0;
+    private static final int DONE = 1;
+    private static final int INTERRUPTING = 2;
+    private static final int INTERRUPTED = 3;
+
+    private final ConcurrentMap<Method, TimeoutPolicy> policies = new ConcurrentHashMap<>();
+
+    @Around("@annotation(timeout)")
+    public Object doTimeout(ProceedingJoinPoint joinPoint, Timeout timeout) throws Throwable {
+        TimeoutPolicy policy = policyOf(joinPoint, timeout);
+        Deadline.Holder holder = Deadline.holder();
+        long previous = holder.deadline;
+        long now = System.nanoTime();
+        if (Deadline.isPast(previous, now)) {
+            policy.failedFast.increment();
+            throw new DeadlineExceededException("deadline exceeded before " + policy.name);
+        }
+
+        long deadline = Deadline.earlier(previous, now, policy.timeoutNanos);
+        holder.deadline = deadline;
+        try {
+            if (policy.async) {
+                return withDeadline(joinPoint.proceed(), deadline, now, policy);
+            }
+            Object result = policy.interrupt ? proceedInterruptibly(joinPoint, deadline - now, policy) : joinPoint.proceed();
+            if (Deadline.isPast(deadline, System.nanoTime())) {
+                policy.late.increment();
+            }
+            return result;
+        } finally {
+            holder.deadline = previous;
+            if (previous == Deadline.NONE) {
+                Deadline.release();
+            }
+        }
+    }
+
+    /**
+     * 마감 시각에 현재 스레드를 인터럽트하는 작업을 예약하고 대상을 호출함
+     * - 대상이 먼저 끝나면 작업을 취소함
+     * - 작업이 이미 인터럽트를 시작했으면 끝날 때까지 기다렸다가 인터럽트 상태를 지움 (호출자에게 인터럽트가 새어 나가지 않도록)
+     */
+    private Object proceedInterruptibly(ProceedingJoinPoint joinPoint, long remainingNanos, TimeoutPolicy policy) throws Throwable {
+        Thread caller = Thread.currentThread();
+        AtomicInteger state = new AtomicInteger(RUNNING);
+        ScheduledFuture<?> task = TimeoutScheduler.schedule(() -> {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                caller.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }, remainingNanos);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            if (state.get() != RUNNING) {
+                throw exceeded(policy);
+            }
+            throw e;
+        } finally {
+            if (state.compareAndSet(RUNNING, DONE)) {
+                task.cancel(false);
+            } else {
+                while (state.get() != INTERRUPTED) {
+                    Thread.onSpinWait();
+                }
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private Object withDeadline(Object result, long deadline, long now, TimeoutPolicy policy) {
+        if (!(result instanceof CompletionStage)) {
+            return result;
+        }
+        CompletionStage<?> stage = (CompletionStage<?>) result;
+        if (stage instanceof CompletableFuture && ((CompletableFuture<?>) stage).isDone()) {
+            return stage;
+        }
+        CompletableFuture<Object> bounded = new CompletableFuture<>();
+        ScheduledFuture<?> task = TimeoutScheduler.schedule(() -> {
+            if (bounded.completeExceptionally(exceeded(policy))) {
+                cancel(stage);
+            }
+        }, deadline - now);
+        stage.whenComplete((value, ex) -> {
+            task.cancel(false);
+            if (ex == null) {
+                bounded.complete(value);
+            } else {
+                bounded.completeExceptionally(ex);
+            }
+        });
+        return bounded;
+    }
+
+    private static void cancel(CompletionStage<?> stage) {
+        try {
+            stage.toCompletableFuture().cancel(true);
+        } catch (UnsupportedOperationException e) {
+            // CompletableFuture 로 바꿀 수 없는 구현은 취소하지 못하고 결과만 버림
+        }
+    }
+
+    private static DeadlineExceededException exceeded(TimeoutPolicy policy) {
+        policy.exceeded.increment();
+        return new DeadlineExceededException("deadline exceeded in " + policy.name);
+    }
+
+    /**
+     * 마감 시각이 지나서 대상을 호출하지 않은 수
+     */
+    public long getFailedFast(Method method) {
+        TimeoutPolicy policy = policies.get(method);
+        return policy == null ? 0 : policy.failedFast.sum();
+    }
+
+    /**
+     * 호출 중에 마감 시각을 넘긴 수
+     */
+    public long getExceeded(Method method) {
+        TimeoutPolicy policy = policies.get(method);
+        return policy == null ? 0 : policy.exceeded.sum();
+    }
+
+    /**
+     * 마감 시각이 지난 뒤에 정상으로 끝나서 결과를 그대로 돌려준 수
+     */
+    public long getLate(Method method) {
+        TimeoutPolicy policy = policies.get(method);
+        return policy == null ? 0 : policy.late.sum();
+    }
+
+    private TimeoutPolicy policyOf(ProceedingJoinPoint joinPoint, Timeout timeout) {
+        Method method = JoinPoints.method(joinPoint);
+        TimeoutPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, m -> new TimeoutPolicy(m, timeout));
+        }
+        return policy;
+    }
+
+    private static final class TimeoutPolicy {
+
+        private final String name;
+        private final long timeoutNanos;
+        private final boolean interrupt;
+        private final boolean async;
+        private final LongAdder failedFast = new LongAdder();
+        private final LongAdder exceeded = new LongAdder();
+        private final LongAdder late = new LongAdder();
+
+        private TimeoutPolicy(Method method, Timeout timeout) {
+            this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout.value());
+            this.interrupt = timeout.interrupt();
+            Class<?> returnType = method.getReturnType();
+            this.async = CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class);
+        }
+    }
+}
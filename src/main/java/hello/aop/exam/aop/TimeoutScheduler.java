@@ -0,0 +1,32 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Timeout 의 마감 작업(인터럽트, 비동기 결과 취소)을 실행하는 공용 스케줄러
+ * - 대부분의 호출은 마감 전에 끝나서 작업을 취소하므로, 취소한 작업은 큐에서 바로 지움 (setRemoveOnCancelPolicy)
+ * - 데몬 스레드 하나만 사용하고, 처음 사용할 때 만들어짐
+ */
+final class TimeoutScheduler {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+    private TimeoutScheduler() {
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "timeout-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return SCHEDULER.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,40 @@
+package hello.aop.exam.aop;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * 로그 인자로 넘기는 지연 렌더링 객체
+ * - 로거가 실제로 로그를 출력하면서 toString() 을 호출할 때 처음으로 joinPoint.getArgs() 를 호출함 (배열 복사, 문자열 생성을 미룸)
+ * - 인자 하나당 maxLength 글자까지만 출력해서 큰 값이 로그를 채우지 못하게 함
+ */
+class TraceArgs {
+
+    private final JoinPoint joinPoint;
+    private final int maxLength;
+
+    TraceArgs(JoinPoint joinPoint, int maxLength) {
+        this.joinPoint = joinPoint;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String toString() {
+        Object[] args = joinPoint.getArgs();
+        StringBuilder sb = new StringBuilder().append('[');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            appendCapped(sb, String.valueOf(args[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    private void appendCapped(StringBuilder sb, String value) {
+        if (value.length() <= maxLength) {
+            sb.append(value);
+            return;
+        }
+        sb.append(value, 0, maxLength).append("...(").append(value.length()).append(" chars)");
+    }
+}
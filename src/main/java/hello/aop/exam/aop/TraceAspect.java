@@ -1,17 +1,109 @@
 package hello.aop.exam.aop;
 
+import hello.aop.exam.annotation.Trace;
+import hello.aop.logging.AspectLog;
+import hello.aop.support.AdviceMetadata;
+import hello.aop.support.AdviceMetadataCache;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 로그 레벨이 INFO 보다 높거나 샘플링되지 않은 호출은 인자를 조회하지 않고 바로 끝남
+ * - 샘플링 비율은 trace.sample-rate 로 전체 설정하고, @Trace(sampleRate) 로 메서드별로 덮어쓸 수 있음
+ * - 인자는 TraceArgs 로 감싸서 로그가 실제로 출력될 때 렌더링함 (인자 하나당 trace.max-arg-length 글자까지)
+ * - 시그니처 문자열은 AdviceMetadataCache 에 미리 만들어 둔 것을 사용함
+ *
+ * 구간 추적
+ * - @Trace 호출마다 TraceContext 의 스택에 구간(Span)을 쌓고 나노초 단위로 시간을 잼
+ *   (ex) ExamService.request -> ExamRepository.save 는 같은 트레이스 안의 부모, 자식 구간이 됨
+ * - 샘플링 여부는 트레이스의 시작(루트) 호출에서 한 번만 정하고, 안쪽 호출은 루트의 결정을 따름
+ * - 루트 호출이 trace.slow-threshold-ms 보다 오래 걸리면 들여쓰기한 호출 트리를 출력함 (음수면 출력하지 않음)
+ * - TraceListener 빈이 있으면 트레이스가 끝날 때 구간 목록을 전달함
+ * - 트레이스가 끝나면 TraceContext.release() 로 가상 스레드의 스레드 로컬을 비움
+ */
 @Slf4j
 @Aspect
 public class TraceAspect {
 
-    @Before("@annotation(hello.aop.exam.annotation.Trace)")
-    public void doTrace(JoinPoint joinPoint){
-        Object[] args = joinPoint.getArgs();
-        log.info("[trace] {} args={}", joinPoint.getSignature(), args);
+    private double sampleRate = 1.0;
+    private int maxArgLength = 100;
+    private long slowThresholdNanos = TimeUnit.SECONDS.toNanos(1);
+    private TraceListener listener;
+
+    @Value("${trace.sample-rate:1.0}")
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Value("${trace.max-arg-length:100}")
+    public void setMaxArgLength(int maxArgLength) {
+        this.maxArgLength = maxArgLength;
+    }
+
+    @Value("${trace.slow-threshold-ms:1000}")
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        this.slowThresholdNanos = slowThresholdMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Autowired(required = false)
+    public void setTraceListener(TraceListener listener) {
+        this.listener = listener;
+    }
+
+    @Around("@annotation(trace)")
+    public Object doTrace(ProceedingJoinPoint joinPoint, Trace trace) throws Throwable {
+        TraceContext context = TraceContext.current();
+        if (context.isSuppressed() || (!context.isActive() && !isSampled(trace))) {
+            context.suppress();
+            try {
+                return joinPoint.proceed();
+            } finally {
+                context.unsuppress();
+                if (context.isIdle()) {
+                    TraceContext.release();
+                }
+            }
+        }
+
+        AdviceMetadata metadata = AdviceMetadataCache.get(joinPoint);
+        if (log.isInfoEnabled()) {
+            AspectLog.info(log, "[trace] {} args={}", metadata.getSignature(), new TraceArgs(joinPoint, maxArgLength));
+        }
+        Span span = context.start(metadata.getShortSignature());
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            if (context.end(span, failed)) {
+                try {
+                    if (span.getDurationNanos() >= slowThresholdNanos && log.isInfoEnabled()) {
+                        AspectLog.info(log, "[trace] slow call tree\n{}", context.render());
+                    }
+                    if (listener != null) {
+                        listener.onTrace(context.spans());
+                    }
+                } finally {
+                    context.reset();
+                    TraceContext.release();
+                }
+            }
+        }
+    }
+
+    private boolean isSampled(Trace trace) {
+        double rate = trace.sampleRate() < 0 ? sampleRate : trace.sampleRate();
+        if (rate >= 1.0) {
+            return true;
+        }
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
     }
 }
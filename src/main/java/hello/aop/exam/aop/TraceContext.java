@@ -0,0 +1,162 @@
+package hello.aop.exam.aop;
+
+import hello.aop.support.ThreadSupport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 스레드별 @Trace 호출 스택
+ * - spans : 현재 트레이스에서 시작된 구간을 시작 순서대로 기록함 (Span 객체는 트레이스가 끝나도 버리지 않고 다음 트레이스에서 재사용)
+ * - stack : 아직 끝나지 않은 구간, 마지막 원소가 현재 구간이고 그 앞이 부모 구간
+ * - 한 트레이스에 MAX_SPANS 개 넘게 기록하지 않음 (반복문 안의 호출이 메모리를 계속 늘리지 않도록)
+ * - suppressed : 샘플링되지 않은 트레이스 안쪽 호출이 새 트레이스를 시작하지 않도록 깊이만 세어 둠
+ * - 배열은 처음 구간을 시작할 때 만듦 (샘플링되지 않은 호출만 하는 스레드는 배열을 만들지 않음)
+ * - 가상 스레드에서는 트레이스가 끝날 때마다 스레드 로컬을 비움 (release)
+ */
+class TraceContext {
+
+    static final int MAX_SPANS = 1024;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Span[] EMPTY = new Span[0];
+
+    private static final ThreadLocal<TraceContext> CURRENT = ThreadLocal.withInitial(TraceContext::new);
+
+    private Span[] spans = EMPTY;
+    private int size;
+    private Span[] stack = EMPTY;
+    private int depth;
+    private int suppressed;
+    private long traceId;
+    private int nextSpanId;
+    private int droppedSpans;
+
+    static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 트레이스가 끝났거나 억제가 풀려서 현재 스레드에 진행 중인 것이 없을 때 호출함
+     * - 가상 스레드는 보통 작업 하나를 실행하고 끝나고 동시에 수십만 개가 살아 있을 수 있으므로,
+     *   스레드 로컬을 비워서 스레드마다 구간 배열과 Span 객체를 잡고 있지 않게 함
+     * - 플랫폼 스레드는 스레드 풀에서 재사용되므로 그대로 두고 다음 트레이스에서 재사용함
+     */
+    static void release() {
+        if (ThreadSupport.isVirtual(Thread.currentThread())) {
+            CURRENT.remove();
+        }
+    }
+
+    boolean isIdle() {
+        return depth == 0 && suppressed == 0;
+    }
+
+    boolean isActive() {
+        return depth > 0;
+    }
+
+    boolean isSuppressed() {
+        return suppressed > 0;
+    }
+
+    void suppress() {
+        suppressed++;
+    }
+
+    void unsuppress() {
+        suppressed--;
+    }
+
+    /**
+     * 구간을 시작함, MAX_SPANS 를 넘으면 기록하지 않고 null 을 반환함 (스택 깊이는 그대로 맞춤)
+     */
+    Span start(String name) {
+        if (depth == 0) {
+            traceId = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            nextSpanId = 1;
+            droppedSpans = 0;
+        }
+        Span span = null;
+        if (size < MAX_SPANS) {
+            if (size == spans.length) {
+                spans = Arrays.copyOf(spans, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            span = spans[size];
+            if (span == null) {
+                span = spans[size] = new Span();
+            }
+            Span parent = depth == 0 ? null : stack[depth - 1];
+            span.start(traceId, nextSpanId++, parent == null ? 0 : parent.getSpanId(), depth, name, System.nanoTime());
+            size++;
+        } else {
+            droppedSpans++;
+        }
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, Math.max(INITIAL_CAPACITY, depth * 2));
+        }
+        stack[depth++] = span;
+        return span;
+    }
+
+    /**
+     * 구간을 끝냄
+     * @return 트레이스의 루트 구간이 끝났으면 true
+     */
+    boolean end(Span span, boolean failed) {
+        if (span != null) {
+            span.end(System.nanoTime(), failed);
+        }
+        stack[--depth] = null;
+        return depth == 0;
+    }
+
+    /**
+     * 현재 트레이스에서 기록한 구간 (reset 전까지만 유효함)
+     */
+    List<Span> spans() {
+        return Collections.unmodifiableList(Arrays.asList(spans).subList(0, size));
+    }
+
+    /**
+     * 루트 구간이 끝난 뒤 호출해서 다음 트레이스를 준비함 (Span 객체는 남겨두고 재사용)
+     */
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * 들여쓰기한 호출 트리
+     * [trace] traceId=3f2a... spans=2
+     * |-- ExamService.request(..) 12.345ms (spanId=1)
+     * |   |-- ExamRepository.save(..) 10.001ms (spanId=2, parent=1)
+     */
+    String render() {
+        StringBuilder sb = new StringBuilder()
+                .append("[trace] traceId=").append(Long.toHexString(traceId))
+                .append(" spans=").append(size);
+        if (droppedSpans > 0) {
+            sb.append(" dropped=").append(droppedSpans);
+        }
+        for (int i = 0; i < size; i++) {
+            Span span = spans[i];
+            sb.append('\n');
+            for (int d = 0; d < span.getDepth(); d++) {
+                sb.append("|   ");
+            }
+            sb.append("|-- ").append(span.getName()).append(' ')
+                    .append(String.format("%.3fms", span.getDurationNanos() / 1_000_000.0))
+                    .append(" (spanId=").append(span.getSpanId());
+            if (span.getParentSpanId() != 0) {
+                sb.append(", parent=").append(span.getParentSpanId());
+            }
+            if (span.isFailed()) {
+                sb.append(", failed");
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+}
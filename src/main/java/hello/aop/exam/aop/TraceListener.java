@@ -0,0 +1,13 @@
+package hello.aop.exam.aop;
+
+import java.util.List;
+
+/**
+ * 샘플링된 트레이스가 끝날 때마다 구간 목록을 받음 (빈으로 등록하면 TraceAspect 가 사용함)
+ * - spans 는 시작 순서대로이고 첫 구간이 루트 구간임
+ * - Span 객체는 TraceContext 가 다음 트레이스에서 재사용하므로, 보관하려면 호출 안에서 값을 복사해야 함
+ */
+public interface TraceListener {
+
+    void onTrace(List<Span> spans);
+}
@@ -0,0 +1,110 @@
+package hello.aop.exam.fault;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 스레드에서 동시에 호출해도 안전한 장애 주입기
+ * - EVERY_N, BURST 는 전체 호출에 하나뿐인 순번(AtomicLong)으로 판단함
+ *   여러 스레드에서 호출해도 정확히 N 번째 호출마다 실패함 (스레드별로 나눠 세면 스레드 수에 따라 실패 수가 달라짐)
+ *   장애 주입은 테스트용이므로 순번 하나를 두고 경합하는 비용보다 실패 수가 정확한 쪽을 택함
+ * - PROBABILISTIC 은 ThreadLocalRandom 을 사용하므로 공유 상태가 없음
+ * - 전체 호출 수, 실패 수는 LongAdder 로 집계함
+ */
+public class FaultInjector {
+
+    private final FaultPattern pattern;
+    private final int everyN;
+    private final double probability;
+    private final int burstLength;
+    private final int burstPeriod;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+
+    private FaultInjector(FaultPattern pattern, int everyN, double probability, int burstLength, int burstPeriod) {
+        this.pattern = pattern;
+        this.everyN = everyN;
+        this.probability = probability;
+        this.burstLength = burstLength;
+        this.burstPeriod = burstPeriod;
+    }
+
+    public static FaultInjector none() {
+        return new FaultInjector(FaultPattern.NONE, 0, 0, 0, 0);
+    }
+
+    public static FaultInjector everyN(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        return new FaultInjector(FaultPattern.EVERY_N, n, 0, 0, 0);
+    }
+
+    public static FaultInjector probabilistic(double probability) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("probability must be between 0 and 1: " + probability);
+        }
+        return new FaultInjector(FaultPattern.PROBABILISTIC, 0, probability, 0, 0);
+    }
+
+    public static FaultInjector burst(int burstLength, int burstPeriod) {
+        if (burstLength < 0 || burstPeriod < 1 || burstLength > burstPeriod) {
+            throw new IllegalArgumentException("invalid burst: length=" + burstLength + ", period=" + burstPeriod);
+        }
+        return new FaultInjector(FaultPattern.BURST, 0, 0, burstLength, burstPeriod);
+    }
+
+    /**
+     * 이번 호출을 실패시켜야 하면 true
+     */
+    public boolean shouldFail() {
+        calls.increment();
+        boolean fail;
+        switch (pattern) {
+            case EVERY_N:
+                fail = sequence.incrementAndGet() % everyN == 0;
+                break;
+            case PROBABILISTIC:
+                fail = ThreadLocalRandom.current().nextDouble() < probability;
+                break;
+            case BURST:
+                fail = (sequence.incrementAndGet() - 1) % burstPeriod < burstLength;
+                break;
+            default:
+                fail = false;
+        }
+        if (fail) {
+            faults.increment();
+        }
+        return fail;
+    }
+
+    /**
+     * 실패시켜야 하면 IllegalStateException 을 던짐
+     */
+    public void maybeFail() {
+        if (shouldFail()) {
+            throw new IllegalStateException("예외 발생");
+        }
+    }
+
+    public FaultPattern getPattern() {
+        return pattern;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFaults() {
+        return faults.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "FaultInjector{pattern=" + pattern + ", calls=" + getCalls() + ", faults=" + getFaults() + "}";
+    }
+}
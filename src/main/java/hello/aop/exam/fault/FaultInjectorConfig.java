@@ -0,0 +1,30 @@
+package hello.aop.exam.fault;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ExamRepository 에 주입할 장애 주입기
+ * - exam.fault.pattern : NONE | EVERY_N | PROBABILISTIC | BURST
+ * - exam.fault.every-n : EVERY_N 일 때 N 번에 1번 실패
+ * - exam.fault.probability : PROBABILISTIC 일 때 실패 확률
+ * - exam.fault.burst-length, exam.fault.burst-period : BURST 일 때 period 번마다 처음 length 번 실패
+ */
+@Configuration
+public class FaultInjectorConfig {
+
+    @Bean
+    public FaultInjector examFaultInjector(@Value("${exam.fault.pattern:EVERY_N}") FaultPattern pattern,
+                                           @Value("${exam.fault.every-n:5}") int everyN,
+                                           @Value("${exam.fault.probability:0.2}") double probability,
+                                           @Value("${exam.fault.burst-length:3}") int burstLength,
+                                           @Value("${exam.fault.burst-period:20}") int burstPeriod) {
+        switch (pattern) {
+            case EVERY_N: return FaultInjector.everyN(everyN);
+            case PROBABILISTIC: return FaultInjector.probabilistic(probability);
+            case BURST: return FaultInjector.burst(burstLength, burstPeriod);
+            default: return FaultInjector.none();
+        }
+    }
+}
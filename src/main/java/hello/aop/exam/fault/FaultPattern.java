@@ -0,0 +1,12 @@
+package hello.aop.exam.fault;
+
+/**
+ * 장애를 발생시키는 방식
+ * - NONE : 실패하지 않음
+ * - EVERY_N : N 번에 1번 실패
+ * - PROBABILISTIC : 호출마다 probability 확률로 실패
+ * - BURST : period 번마다 처음 burstLength 번을 연속으로 실패
+ */
+public enum FaultPattern {
+    NONE, EVERY_N, PROBABILISTIC, BURST
+}
@@ -0,0 +1,27 @@
+package hello.aop.internalcall;
+
+import hello.aop.support.Self;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * @Self 로 자기 자신의 프록시를 필드에 주입 받음
+ * - V1 과 달리 빈 생성이 끝난 뒤에 주입하므로 순환 참조 설정(allow-circular-references)이 필요 없음
+ * - V2 와 달리 호출할 때마다 스프링 컨테이너에서 조회하지 않고 필드에 저장된 프록시를 그대로 사용함
+ */
+@Slf4j
+@Component
+public class CallServiceV4 {
+
+    @Self
+    private CallServiceV4 self;
+
+    public void external(){
+        log.info("call external");
+        self.internal(); //외부 메서드 호출
+    }
+
+    public void internal(){
+        log.info("call internal");
+    }
+}
@@ -1,5 +1,6 @@
 package hello.aop.internalcall.aop;
 
+import hello.aop.logging.AspectLog;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,6 +12,6 @@ public class CallLogAspect {
 
     @Before("execution(* hello.aop.internalcall..*.*(..))")
     public void doLog(JoinPoint joinPoint){
-        log.info("aop={}", joinPoint.getSignature());
+        AspectLog.info(log, "aop={}", joinPoint.getSignature());
     }
 }
@@ -0,0 +1,47 @@
+package hello.aop.logging;
+
+import org.slf4j.Logger;
+
+/**
+ * 애스펙트에서 사용하는 로그 출력 창구
+ * - 기본은 호출한 스레드에서 바로 log.info 를 호출함 (기존과 같음)
+ * - AsyncLogSink 가 설치되어 있으면 이벤트를 링 버퍼에 넣기만 하고 출력은 백그라운드 스레드가 모아서 처리함
+ * - INFO 가 꺼져 있으면 호출한 스레드에서 바로 끝남
+ */
+public final class AspectLog {
+
+    private static volatile AsyncLogSink sink;
+
+    private AspectLog() {
+    }
+
+    public static void info(Logger log, String format, Object arg) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        AsyncLogSink current = sink;
+        if (current == null || !current.publish(log, format, 1, arg, null)) {
+            log.info(format, arg);
+        }
+    }
+
+    public static void info(Logger log, String format, Object arg1, Object arg2) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        AsyncLogSink current = sink;
+        if (current == null || !current.publish(log, format, 2, arg1, arg2)) {
+            log.info(format, arg1, arg2);
+        }
+    }
+
+    static void install(AsyncLogSink asyncLogSink) {
+        sink = asyncLogSink;
+    }
+
+    static void uninstall(AsyncLogSink asyncLogSink) {
+        if (sink == asyncLogSink) {
+            sink = null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package hello.aop.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * aspect.log.async=true 이면 애스펙트 로그를 AsyncLogSink 로 보냄
+ * - aspect.log.buffer-size : 링 버퍼 크기 (2의 거듭제곱)
+ * - aspect.log.batch-size : 소비자 스레드가 한 번에 꺼내는 이벤트 수
+ * - aspect.log.overflow : 버퍼가 가득 찼을 때 DROP 또는 BLOCK
+ */
+@Configuration
+@ConditionalOnProperty(name = "aspect.log.async", havingValue = "true")
+public class AspectLogConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AsyncLogSink asyncLogSink(@Value("${aspect.log.buffer-size:8192}") int bufferSize,
+                                     @Value("${aspect.log.batch-size:256}") int batchSize,
+                                     @Value("${aspect.log.overflow:DROP}") OverflowPolicy overflowPolicy) {
+        return new AsyncLogSink(bufferSize, batchSize, overflowPolicy);
+    }
+}
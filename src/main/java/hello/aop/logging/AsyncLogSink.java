@@ -0,0 +1,228 @@
+package hello.aop.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 애스펙트 로그 이벤트를 모아서 출력하는 비동기 싱크
+ * - 크기가 2의 거듭제곱인 링 버퍼를 여러 생산자(호출 스레드)가 락 없이 채우고, 소비자 스레드 하나가 batchSize 개씩 꺼내서 출력함
+ * - 칸마다 sequence 를 두고 CAS 로 자리를 예약함 (Vyukov bounded queue 방식)
+ *   sequence == 위치 : 비어 있음, sequence == 위치 + 1 : 이벤트가 들어 있음
+ * - 이벤트는 로거, 포맷, 인자만 담고 문자열은 소비자 스레드에서 만듬
+ * - 버퍼가 가득 차면 OverflowPolicy 에 따라 버리거나 기다림
+ * - 멈출 때는 소비자 스레드가 예약된 자리가 모두 채워질 때까지 출력한 뒤 tail 에 CLOSED 비트를 CAS 로 세움
+ *   그 뒤로는 자리를 예약할 수 없으므로, stop 과 겹친 생산자는 이벤트를 넣었거나 직접 출력함 (잃어버리는 이벤트가 없음)
+ */
+@Slf4j
+public class AsyncLogSink {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long CLOSED = Long.MIN_VALUE;
+    private static final long NO_SLOT = -1;
+    private static final long CLOSED_SLOT = -2;
+
+    private final int mask;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLongArray sequences;
+    private final Logger[] loggers;
+    private final String[] formats;
+    private final int[] argCounts;
+    private final Object[] args1;
+    private final Object[] args2;
+
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private final Thread drainer;
+    private volatile boolean running;
+
+    public AsyncLogSink(int bufferSize, int batchSize, OverflowPolicy overflowPolicy) {
+        if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two: " + bufferSize);
+        }
+        this.mask = bufferSize - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.sequences = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.loggers = new Logger[bufferSize];
+        this.formats = new String[bufferSize];
+        this.argCounts = new int[bufferSize];
+        this.args1 = new Object[bufferSize];
+        this.args2 = new Object[bufferSize];
+        this.drainer = new Thread(this::drainLoop, "aspect-log-sink");
+        this.drainer.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        drainer.start();
+        AspectLog.install(this);
+    }
+
+    /**
+     * 설치를 해제하고 남은 이벤트를 모두 출력한 뒤 소비자 스레드를 멈춤
+     */
+    public void stop() {
+        AspectLog.uninstall(this);
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return 이벤트를 처리했으면(넣었거나 정책에 따라 버렸으면) true, 싱크가 멈췄으면 false (호출자가 직접 출력)
+     */
+    boolean publish(Logger logger, String format, int argCount, Object arg1, Object arg2) {
+        if (!running) {
+            return false;
+        }
+        long pos = claim();
+        if (pos == CLOSED_SLOT) {
+            return false;
+        }
+        if (pos == NO_SLOT) {
+            dropped.increment();
+            return true;
+        }
+        int index = (int) (pos & mask);
+        loggers[index] = logger;
+        formats[index] = format;
+        argCounts[index] = argCount;
+        args1[index] = arg1;
+        args2[index] = arg2;
+        sequences.lazySet(index, pos + 1);
+        published.increment();
+        return true;
+    }
+
+    private long claim() {
+        long pos = tail.get();
+        while (true) {
+            if ((pos & CLOSED) != 0) {
+                return CLOSED_SLOT;
+            }
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    return NO_SLOT;
+                }
+                Thread.onSpinWait();
+                LockSupport.parkNanos(1_000);
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drainBatch() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drainAndClose();
+    }
+
+    /**
+     * 멈추기 전에 남은 이벤트를 모두 출력하고 더 이상 자리를 예약하지 못하게 닫음
+     * - 자리를 예약했지만 아직 채우지 않은 생산자가 있으면 채울 때까지 기다림
+     * - 그 사이에 새로 예약된 자리가 있으면 CAS 가 실패하므로 다시 출력함
+     */
+    private void drainAndClose() {
+        while (true) {
+            long claimed = tail.get();
+            while (head < claimed) {
+                if (drainBatch() == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+            if (tail.compareAndSet(claimed, claimed | CLOSED)) {
+                return;
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        while (count < batchSize) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            write(index);
+            written.increment();
+            loggers[index] = null;
+            formats[index] = null;
+            args1[index] = null;
+            args2[index] = null;
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            count++;
+        }
+        if (count > 0) {
+            batches.increment();
+        }
+        return count;
+    }
+
+    private void write(int index) {
+        try {
+            if (argCounts[index] == 1) {
+                loggers[index].info(formats[index], args1[index]);
+            } else {
+                loggers[index].info(formats[index], args1[index], args2[index]);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[aspect-log] failed to write event", e);
+        }
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncLogSink{published=" + getPublished() + ", written=" + getWritten() + ", dropped=" + getDropped()
+                + ", batches=" + getBatches() + ", overflowPolicy=" + overflowPolicy + "}";
+    }
+}
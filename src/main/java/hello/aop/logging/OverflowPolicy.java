@@ -0,0 +1,10 @@
+package hello.aop.logging;
+
+/**
+ * 링 버퍼가 가득 찼을 때의 처리 방법
+ * - DROP : 이벤트를 버리고 dropped 카운트만 올림 (호출 스레드는 절대 기다리지 않음)
+ * - BLOCK : 빈 자리가 생길 때까지 호출 스레드가 기다림 (로그를 잃지 않음)
+ */
+public enum OverflowPolicy {
+    DROP, BLOCK
+}
@@ -1,5 +1,7 @@
 package hello.aop.member;
 
+import hello.aop.exam.annotation.Cached;
+import hello.aop.exam.annotation.Coalesce;
 import hello.aop.member.annotation.ClassAop;
 import hello.aop.member.annotation.MethodAop;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,8 @@ import org.springframework.stereotype.Component;
 public class MemberServiceImpl implements MemberService{
     @Override
     @MethodAop("test value")
+    @Coalesce
+    @Cached(maximumSize = 10_000, ttlMillis = 60_000)
     public String hello(String param) {
         return "ok";
     }
@@ -0,0 +1,108 @@
+package hello.aop.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 메서드별 지연 시간 히스토그램 저장소
+ * - 메서드를 처음 볼 때 MethodTimer(id, 이름, 히스토그램)를 만들어 두고 이후에는 Method 로 찾기만 함
+ *   (Signature.toString() 같은 문자열을 호출마다 만들지 않음)
+ * - 이름은 패키지를 포함한 클래스, 메서드, 파라미터 타입으로 만듦 (ex) hello.aop.order.OrderService.orderItem(String)
+ *   오버로드된 메서드나 다른 패키지의 같은 이름 클래스가 스냅샷에서 서로 덮어쓰지 않도록
+ * - snapshot() 으로 조회하고, startDump() 로 주기적으로 로그에 출력할 수 있음
+ */
+@Slf4j
+public class LatencyMetrics {
+
+    private final ConcurrentMap<Method, MethodTimer> timers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private volatile ScheduledExecutorService dumpScheduler;
+
+    public MethodTimer timer(Method method) {
+        MethodTimer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> new MethodTimer(nextId.getAndIncrement(), m));
+        }
+        return timer;
+    }
+
+    /**
+     * 메서드 이름(패키지.클래스.메서드(파라미터)) 순으로 정렬한 스냅샷
+     */
+    public Map<String, HistogramSnapshot> snapshot() {
+        Map<String, HistogramSnapshot> result = new TreeMap<>();
+        for (MethodTimer timer : timers.values()) {
+            result.put(timer.getName(), timer.getHistogram().snapshot());
+        }
+        return result;
+    }
+
+    public void dump() {
+        snapshot().forEach((name, snapshot) -> log.info("[latency] {} {}", name, snapshot));
+    }
+
+    public synchronized void startDump(long intervalMillis) {
+        if (dumpScheduler != null || intervalMillis <= 0) {
+            return;
+        }
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "latency-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpScheduler.scheduleAtFixedRate(this::dump, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopDump() {
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            dumpScheduler = null;
+        }
+    }
+
+    public static class MethodTimer {
+
+        private final int id;
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        MethodTimer(int id, Method method) {
+            this.id = id;
+            this.name = nameOf(method);
+        }
+
+        private static String nameOf(Method method) {
+            StringJoiner parameters = new StringJoiner(",", "(", ")");
+            for (Class<?> type : method.getParameterTypes()) {
+                parameters.add(type.getSimpleName());
+            }
+            return method.getDeclaringClass().getName() + "." + method.getName() + parameters;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+    }
+}
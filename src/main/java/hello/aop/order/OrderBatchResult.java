@@ -0,0 +1,73 @@
+package hello.aop.order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * orderItems 결과, 실패한 주문은 예외를 던지지 않고 몇 번째 주문이 왜 실패했는지 담아서 돌려줌
+ */
+public class OrderBatchResult {
+
+    private final int size;
+    private final List<Failure> failures = new ArrayList<>();
+
+    OrderBatchResult(int size) {
+        this.size = size;
+    }
+
+    void fail(int index, String itemId, RuntimeException cause) {
+        failures.add(new Failure(index, itemId, cause));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getSuccessCount() {
+        return size - failures.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBatchResult{size=" + size + ", failures=" + failures + "}";
+    }
+
+    public static class Failure {
+
+        private final int index;
+        private final String itemId;
+        private final RuntimeException cause;
+
+        Failure(int index, String itemId, RuntimeException cause) {
+            this.index = index;
+            this.itemId = itemId;
+            this.cause = cause;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public RuntimeException getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return index + ":" + itemId + "=" + cause.getMessage();
+        }
+    }
+}
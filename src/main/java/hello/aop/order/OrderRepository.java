@@ -1,18 +1,68 @@
 package hello.aop.order;
 
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.exam.annotation.Timeout;
+import hello.aop.exam.aop.Deadline;
+import hello.aop.store.OrderTransactionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 @Slf4j
 @Repository
 public class OrderRepository {
 
+    private final OrderTransactionManager transactionManager;
+
+    public OrderRepository(OrderTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * 주문을 저장소에 씀, 트랜잭션 안이면 커밋할 때 반영됨 (TransactionAspect)
+     * - 동시에 64개까지 실행하고, 넘친 호출은 128개까지 100ms 동안 기다림 (BulkheadAspect)
+     * - 500ms 안에 끝나야 하고, 바깥(OrderService.orderItem)에 남은 시간이 더 짧으면 그 시간을 따름 (TimeoutAspect)
+     *   저장소는 파일 채널을 사용하므로 인터럽트하지 않고(interrupt = false), 쓰기 직전에 Deadline.check() 로 마감 시각을 확인함
+     * - 검증과 마감 시각 확인을 마친 뒤 마지막에 씀 (saveAll 과 같음)
+     *   트랜잭션이 없으면 바로 커밋되므로, 실패로 끝날 주문을 먼저 써 두면 호출자는 예외를 받는데 주문은 남게 됨
+     */
+    @Timeout(500)
+    @Bulkhead(maxConcurrent = 64, queueSize = 128, maxWaitMillis = 100)
     public String save(String itemId){
         log.info("[orderRepository] 실행");
-        //저장 로직
         if(itemId.equals("ex")){
             throw new IllegalStateException("예외 발생");
         }
+        Deadline.check();
+        //저장 로직
+        transactionManager.write(itemId);
         return "ok";
     }
+
+    /**
+     * 여러 주문을 한 번에 씀
+     * - 저장할 수 없는 주문은 쓰지 않고 결과에 담고, 나머지는 한 번에 저장소에 씀
+     *   상품 id 가 null 이거나 비어 있으면 IllegalArgumentException 으로 담음 (배치 전체를 실패시키지 않음)
+     */
+    public OrderBatchResult saveAll(Collection<String> itemIds){
+        log.info("[orderRepository] saveAll size={}", itemIds.size());
+        OrderBatchResult result = new OrderBatchResult(itemIds.size());
+        List<String> writes = new ArrayList<>(itemIds.size());
+        int index = 0;
+        for (String itemId : itemIds) {
+            if(itemId == null || itemId.isBlank()){
+                result.fail(index, itemId, new IllegalArgumentException("상품 id 가 비어 있음"));
+            } else if("ex".equals(itemId)){
+                result.fail(index, itemId, new IllegalStateException("예외 발생"));
+            } else {
+                writes.add(itemId);
+            }
+            index++;
+        }
+        transactionManager.writeAll(writes);
+        return result;
+    }
 }
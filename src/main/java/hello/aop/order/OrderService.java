@@ -1,8 +1,12 @@
 package hello.aop.order;
 
+import hello.aop.exam.annotation.RateLimited;
+import hello.aop.exam.annotation.Timeout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Slf4j
 @Service
 public class OrderService {
@@ -13,8 +17,29 @@ public class OrderService {
         this.orderRepository = orderRepository;
     }
 
+    /**
+     * 1초 안에 끝나야 함, 안쪽의 OrderRepository.save 는 이 마감 시각 안에서 실행됨 (TimeoutAspect)
+     * 상품(itemId)마다 초당 1000건까지 받음, 오래 주문이 없던 상품의 한도는 지움 (RateLimitedAspect)
+     */
+    @RateLimited(permitsPerSecond = 1000, burst = 1000, keyArgs = 0)
+    @Timeout(1000)
     public void orderItem(String itemId){
         log.info("[orderService] 실행");
         orderRepository.save(itemId);
     }
+
+    /**
+     * 여러 주문을 한 번에 처리함
+     * - 프록시를 한 번만 거치므로 어드바이스(로그, 트랜잭션 등)도 주문마다가 아니라 배치마다 한 번 실행됨
+     * - 저장소에도 한 번에 씀 (OrderRepository.saveAll)
+     * - 실패한 주문은 예외를 던지지 않고 OrderBatchResult 에 담아서 돌려주고, 나머지 주문은 반영함
+     * - 주문 수만큼 한도를 가져가서 초당 10000건까지 받음 (RateLimitedAspect)
+     *   burst 가 한 번에 받을 수 있는 배치 크기의 상한이므로 실제 배치보다 넉넉하게 2초 분량(20000건)으로 둠
+     *   배치는 상품이 섞여 있으므로 상품별이 아니라 메서드 전체 한도를 사용함
+     */
+    @RateLimited(permitsPerSecond = 10_000, burst = 20_000, permitsArg = 0)
+    public OrderBatchResult orderItems(Collection<String> itemIds){
+        log.info("[orderService] 배치 실행 size={}", itemIds.size());
+        return orderRepository.saveAll(itemIds);
+    }
 }
@@ -1,5 +1,6 @@
 package hello.aop.order.aop;
 
+import hello.aop.logging.AspectLog;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -24,7 +25,7 @@ public class AspectV2 {
 
     @Around("allOrder()")
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); // join point 시그니처
+        AspectLog.info(log, "[log] {}", joinPoint.getSignature()); // join point 시그니처
         return joinPoint.proceed();
     }
 }
@@ -1,5 +1,6 @@
 package hello.aop.order.aop;
 
+import hello.aop.logging.AspectLog;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -14,22 +15,22 @@ public class AspectV4Pointcut {
      */
     @Around("hello.aop.order.aop.Pointcuts.allOrder()")
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); // join point 시그니처
+        AspectLog.info(log, "[log] {}", joinPoint.getSignature()); // join point 시그니처
         return joinPoint.proceed();
     }
 
     @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable{
         try {
-            log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+            AspectLog.info(log, "[트랜잭션 시작] {}", joinPoint.getSignature());
             Object result = joinPoint.proceed();
-            log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
+            AspectLog.info(log, "[트랜잭션 커밋] {}", joinPoint.getSignature());
             return result;
         } catch (Exception e){
-            log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
+            AspectLog.info(log, "[트랜잭션 롤백] {}", joinPoint.getSignature());
             throw e;
         } finally {
-            log.info("[트랜잭션 릴리즈] {}", joinPoint.getSignature());
+            AspectLog.info(log, "[트랜잭션 릴리즈] {}", joinPoint.getSignature());
         }
     }
 }
@@ -1,5 +1,6 @@
 package hello.aop.order.aop;
 
+import hello.aop.logging.AspectLog;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -61,7 +62,7 @@ public class AspectV6Advice {
 
     @Before("hello.aop.order.aop.Pointcuts.orderAndService()")
     public void doBefore(JoinPoint joinPoint){
-        log.info("[before] {}", joinPoint.getSignature());
+        AspectLog.info(log, "[before] {}", joinPoint.getSignature());
     }
 
     /**
@@ -70,7 +71,7 @@ public class AspectV6Advice {
      */
     @AfterReturning(value = "hello.aop.order.aop.Pointcuts.orderAndService()", returning = "result")
     public void doReturn(JoinPoint joinPoint, Object result){
-        log.info("[return] {} return ={}", joinPoint.getSignature(), result);
+        AspectLog.info(log, "[return] {} return ={}", joinPoint.getSignature(), result);
     }
 
     /**
@@ -79,11 +80,11 @@ public class AspectV6Advice {
      */
     @AfterThrowing(value = "hello.aop.order.aop.Pointcuts.orderAndService()", throwing = "ex")
     public void doThrow(JoinPoint joinPoint, Exception ex){
-        log.info("[ex] {} message ={}", ex);
+        AspectLog.info(log, "[ex] {} message ={}", ex);
     }
 
     @After("hello.aop.order.aop.Pointcuts.orderAndService()")
     public void doAfter(JoinPoint joinPoint){
-        log.info("[after] {}", joinPoint.getSignature());
+        AspectLog.info(log, "[after] {}", joinPoint.getSignature());
     }
 }
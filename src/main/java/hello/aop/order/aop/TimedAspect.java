@@ -0,0 +1,46 @@
+package hello.aop.order.aop;
+
+import hello.aop.metrics.LatencyMetrics;
+import hello.aop.support.JoinPoints;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Pointcuts.allOrder() 에 해당하는 모든 메서드의 지연 시간을 메서드별 히스토그램에 기록함
+ * - 조회 : getMetrics().snapshot() => p50, p99, p999
+ * - metrics.dump-interval-ms 가 0 보다 크면 그 주기로 로그에 출력함
+ * - 기록하는 동안 객체를 만들지 않음 (Method 조회 -> 미리 만든 MethodTimer -> 히스토그램 칸 증가)
+ */
+@Aspect
+public class TimedAspect implements DisposableBean {
+
+    private final LatencyMetrics metrics = new LatencyMetrics();
+
+    @Value("${metrics.dump-interval-ms:0}")
+    public void setDumpIntervalMillis(long dumpIntervalMillis) {
+        metrics.startDump(dumpIntervalMillis);
+    }
+
+    @Around("hello.aop.order.aop.Pointcuts.allOrder()")
+    public Object doTimed(ProceedingJoinPoint joinPoint) throws Throwable {
+        LatencyMetrics.MethodTimer timer = metrics.timer(JoinPoints.method(joinPoint));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+
+    public LatencyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        metrics.stopDump();
+    }
+}
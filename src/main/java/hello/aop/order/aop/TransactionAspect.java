@@ -0,0 +1,44 @@
+package hello.aop.order.aop;
+
+import hello.aop.logging.AspectLog;
+import hello.aop.store.OrderTransaction;
+import hello.aop.store.OrderTransactionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 실제 트랜잭션을 적용하는 애스펙트 (AspectV5Order.TxAspect 는 로그만 남김)
+ * - orderAndService() 로 서비스 메서드 실행을 트랜잭션으로 감싸고, 그 안에서 OrderRepository 가 쓴 주문은 정상 반환되면 커밋, 예외가 발생하면 롤백함
+ * - 서비스가 다른 서비스를 호출하면 바깥 트랜잭션에 참여함
+ * - 커밋은 OrderStore 가 처리함 (FileOrderStore 는 동시에 커밋하는 요청들을 모아서 fsync 한 번으로 반영함)
+ */
+@Slf4j
+@Aspect
+@Order(1)
+public class TransactionAspect {
+
+    private final OrderTransactionManager transactionManager;
+
+    public TransactionAspect(OrderTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
+    public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        OrderTransaction transaction = transactionManager.begin();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            transactionManager.rollback(transaction);
+            AspectLog.info(log, "[트랜잭션 롤백] {}", joinPoint.getSignature());
+            throw e;
+        }
+        transactionManager.commit(transaction);
+        AspectLog.info(log, "[트랜잭션 커밋] {} writes={}", joinPoint.getSignature(), transaction.size());
+        return result;
+    }
+}
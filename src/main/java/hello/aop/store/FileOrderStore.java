@@ -0,0 +1,280 @@
+package hello.aop.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * 파일 주문 저장소 (그룹 커밋)
+ * - 주문은 한 줄에 상품 id 하나씩 파일 끝에 추가하고, 시작할 때 파일을 다시 읽어서 인덱스(MemoryOrderStore)를 만듦
+ *   마지막 줄이 줄바꿈 없이 끝나면(쓰는 도중 종료) 그 줄은 버리고 파일을 잘라냄
+ * - 커밋하는 스레드는 요청을 큐에 넣고 기다리기만 하고, 쓰기 스레드(order-store-writer) 하나가 큐에 쌓인 요청을 최대 maxBatch 개씩 모아서
+ *   한 번에 쓰고 fsync(FileChannel.force) 한 번으로 함께 디스크에 반영함
+ *   => 동시에 커밋하는 스레드가 많을수록 fsync 한 번에 반영되는 커밋이 늘어남 (maxBatch=1 이면 커밋마다 fsync)
+ * - fsync=false 면 운영체제 페이지 캐시까지만 쓰고 반환함 (프로세스가 죽어도 남지만 전원이 꺼지면 잃을 수 있음)
+ * - 쓰기에 실패하면 그 배치의 커밋은 모두 UncheckedIOException 으로 실패하고 인덱스에 반영하지 않음
+ *   실패하기 전에 쓴 일부 바이트는 배치 시작 위치로 잘라내고(truncate) 쓰기 위치도 되돌림
+ *   그래서 다음 배치가 반쯤 쓴 줄 뒤에 이어 쓰거나, 다시 시작할 때 실패한 주문을 커밋된 주문으로 읽지 않음
+ *   잘라내기도 실패하면 파일 끝을 믿을 수 없으므로 저장소를 닫고, 이후 커밋은 IllegalStateException 으로 실패함
+ */
+@Slf4j
+public class FileOrderStore implements OrderStore, AutoCloseable {
+
+    private static final CommitRequest CLOSE = new CommitRequest(List.of());
+
+    private final Path path;
+    private final int maxBatch;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final MemoryOrderStore index = new MemoryOrderStore();
+    private final BlockingQueue<CommitRequest> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // 쓰기 스레드에서만 사용, 마지막으로 성공한 배치의 끝
+    private long writePosition;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public FileOrderStore(Path path, int maxBatch, boolean fsync) {
+        this(path, maxBatch, fsync, UnaryOperator.identity());
+    }
+
+    /**
+     * @param channelWrapper 연 파일 채널을 감쌈 (테스트에서 쓰기 실패, 느린 fsync 를 주입할 때 사용)
+     */
+    FileOrderStore(Path path, int maxBatch, boolean fsync, UnaryOperator<FileChannel> channelWrapper) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        }
+        this.path = path;
+        this.maxBatch = maxBatch;
+        this.fsync = fsync;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = channelWrapper.apply(
+                    FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open order store " + path, e);
+        }
+        this.writer = new Thread(this::writeLoop, "order-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private void recover() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        int lineStart = 0;
+        List<String> itemIds = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                itemIds.add(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < bytes.length) {
+            log.warn("[order-store] discard incomplete record at offset {} in {}", lineStart, path);
+            channel.truncate(lineStart);
+        }
+        channel.position(lineStart);
+        writePosition = lineStart;
+        index.commit(itemIds);
+    }
+
+    @Override
+    public void commit(List<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        for (String itemId : itemIds) {
+            if (itemId.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("itemId must not contain a line break: " + itemId);
+            }
+        }
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("order store is closed: " + path);
+        }
+        CommitRequest request = new CommitRequest(itemIds);
+        queue.add(request);
+        try {
+            awaitCommit(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 쓰기 스레드가 닫히는 중에 큐에 들어간 요청은 처리되지 않으므로, 쓰기 스레드가 끝났는데 요청이 큐에 남아 있으면 실패시킴
+     */
+    private void awaitCommit(CommitRequest request) throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                request.done.get(100, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                if (!writer.isAlive() && queue.remove(request)) {
+                    throw new IllegalStateException("order store is closed: " + path);
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<CommitRequest> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            boolean closing = batch.remove(CLOSE);
+            boolean usable = writeBatch(batch);
+            batch.clear();
+            if (!usable) {
+                closeChannel();
+                return;
+            }
+            if (closing) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 실패한 쓰기를 되돌리지 못해서 더 쓸 수 없으면 false
+     */
+    private boolean writeBatch(List<CommitRequest> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        long written;
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (CommitRequest request : batch) {
+                for (String itemId : request.itemIds) {
+                    sb.append(itemId).append('\n');
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            written = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            boolean usable = rollback();
+            UncheckedIOException failure = new UncheckedIOException("cannot write order store " + path, e);
+            for (CommitRequest request : batch) {
+                request.done.completeExceptionally(failure);
+            }
+            return usable;
+        }
+        writePosition += written;
+        // 커밋한 스레드가 돌아온 뒤에 읽은 통계에도 자기 커밋이 들어 있도록 먼저 셈
+        commits.add(batch.size());
+        batches.increment();
+        for (CommitRequest request : batch) {
+            index.commit(request.itemIds);
+            request.done.complete(null);
+        }
+        return true;
+    }
+
+    /**
+     * 실패한 배치가 쓴 바이트를 잘라내고 쓰기 위치를 배치 시작으로 되돌림
+     */
+    private boolean rollback() {
+        try {
+            channel.truncate(writePosition);
+            channel.position(writePosition);
+            return true;
+        } catch (IOException e) {
+            log.error("[order-store] cannot roll back failed write at offset {}, closing {}", writePosition, path, e);
+            return false;
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("[order-store] cannot close {}", path, e);
+        }
+    }
+
+    @Override
+    public long count(String itemId) {
+        return index.count(itemId);
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 커밋 수 / fsync(배치) 수 = fsync 한 번에 함께 반영된 평균 커밋 수
+     */
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * 큐에 남은 커밋을 모두 쓴 뒤 파일을 닫음
+     */
+    @Override
+    public void close() {
+        queue.add(CLOSE);
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class CommitRequest {
+        private final List<String> itemIds;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private CommitRequest(List<String> itemIds) {
+            this.itemIds = itemIds;
+        }
+    }
+}
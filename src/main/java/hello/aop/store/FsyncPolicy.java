@@ -0,0 +1,11 @@
+package hello.aop.store;
+
+/**
+ * 커밋을 디스크에 반영(fsync)하는 시점
+ * - ALWAYS : 커밋이 반환되기 전에 반영함 (동시에 커밋한 스레드들은 fsync 한 번으로 함께 반영됨)
+ * - INTERVAL : 백그라운드 스레드가 주기적으로 반영함 (그 사이에 전원이 꺼지면 마지막 주기의 커밋을 잃을 수 있음)
+ * - NEVER : 운영체제에 맡김
+ */
+public enum FsyncPolicy {
+    ALWAYS, INTERVAL, NEVER
+}
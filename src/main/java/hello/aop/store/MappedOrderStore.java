@@ -0,0 +1,443 @@
+package hello.aop.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 메모리 매핑한 추가 전용(append-only) 로그 주문 저장소
+ * - 파일을 segmentSize 크기의 세그먼트로 나눠서 매핑하고, 세그먼트가 차면 파일을 늘려서 다음 세그먼트를 매핑함
+ * - 레코드 : [int payload 길이][int payload CRC32][payload = long sequence, long timestampMillis, itemId (UTF-8)]
+ *   레코드는 세그먼트 경계를 넘지 않음, 남은 공간이 부족하면 END_OF_SEGMENT(-1) 를 쓰고 다음 세그먼트로 넘어감
+ *   길이가 0 이면 로그의 끝 (아직 쓰지 않은 영역은 0 으로 채워져 있음)
+ * - 커밋 마커 : 커밋 하나의 레코드 뒤에 [int COMMIT(-2)][int CRC32][long 마지막 sequence][int 레코드 수] 를 씀
+ *   복구할 때는 마커까지 온전한 커밋만 반영하므로, 여러 레코드를 쓰는 도중에 종료돼도 커밋의 일부만 반영되지 않음
+ * - 인덱스 : itemId -> (주문 수, 마지막 레코드 위치), find() 는 매핑된 영역을 복사하지 않고 OrderRecord 로 감싸서 반환함
+ * - 시작할 때 로그를 처음부터 읽어서 인덱스를 다시 만듦, CRC 가 맞지 않는 레코드(쓰는 도중 종료)를 만나면 거기서 멈추고
+ *   마지막 커밋 마커 뒤를 0 으로 지움
+ * - 커밋 도중 쓰기가 실패하면(다음 세그먼트를 매핑하지 못함) 쓴 영역을 0 으로 지우고 쓰기 위치와 sequence 를 되돌림
+ *   그래서 실패한 커밋의 레코드가 다음 커밋의 force() 로 반영되지 않음
+ *
+ * 쓰기와 fsync
+ * - 커밋 하나의 레코드들은 appendLock 안에서 연속으로 씀 (메모리 복사이므로 짧음)
+ * - ALWAYS : 커밋한 스레드가 forceLock 을 잡고 지금까지 쓴 위치까지 force() 함
+ *   forceLock 을 기다리던 스레드는 앞 스레드가 이미 자기 위치까지 반영했으면 바로 반환하므로, 동시에 커밋한 스레드들은 fsync 한 번으로 함께 반영됨 (그룹 커밋)
+ * - INTERVAL : order-store-fsync 스레드가 fsyncIntervalMillis 마다 force() 함
+ * - 인덱스와 size 는 fsync 정책에 따라 반영이 끝난 뒤에 갱신함
+ * - 락은 ReentrantLock 을 사용함 (가상 스레드가 fsync 를 기다리는 동안 캐리어 스레드를 붙잡지 않도록)
+ */
+@Slf4j
+public class MappedOrderStore implements OrderStore, AutoCloseable {
+
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int END_OF_SEGMENT = -1;
+    private static final int COMMIT = -2;
+    private static final int COMMIT_BODY_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int COMMIT_MARKER_BYTES = Integer.BYTES * 2 + COMMIT_BODY_BYTES;
+
+    private final Path path;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final FileChannel channel;
+    private final Runnable beforeForce;
+
+    private final ConcurrentMap<String, IndexEntry> index = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder forces = new LongAdder();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final ScheduledExecutorService fsyncScheduler;
+
+    private volatile MappedByteBuffer[] segments;
+    private volatile long writtenPosition;
+    private long forcedPosition;
+
+    // appendLock 안에서만 사용
+    private ByteBuffer writeBuffer;
+    private int writeSegment;
+    private long nextSequence = 1;
+    private final CRC32 crc = new CRC32();
+
+    public MappedOrderStore(Path path, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this(path, segmentSize, fsyncPolicy, fsyncIntervalMillis, () -> { });
+    }
+
+    /**
+     * @param beforeForce force() 하기 전에 forceLock 안에서 실행함 (테스트에서 느린 fsync 를 주입할 때 사용)
+     */
+    MappedOrderStore(Path path, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, Runnable beforeForce) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024: " + segmentSize);
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && fsyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("fsyncIntervalMillis must be positive: " + fsyncIntervalMillis);
+        }
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.beforeForce = beforeForce;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileSize = channel.size();
+            if (fileSize % segmentSize != 0) {
+                throw new IllegalStateException("file size " + fileSize + " is not a multiple of segmentSize " + segmentSize + ": " + path);
+            }
+            int segmentCount = (int) Math.max(1, fileSize / segmentSize);
+            MappedByteBuffer[] mapped = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                mapped[i] = map(i);
+            }
+            this.segments = mapped;
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open order store " + path, e);
+        }
+        this.forcedPosition = writtenPosition;
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "order-store-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncScheduler.scheduleWithFixedDelay(() -> syncTo(writtenPosition), fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            fsyncScheduler = null;
+        }
+    }
+
+    private MappedByteBuffer map(int segment) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * segmentSize, segmentSize);
+    }
+
+    private void recover() {
+        MappedByteBuffer[] mapped = segments;
+        int segment = 0;
+        int offset = 0;
+        int committedSegment = 0;
+        int committedOffset = 0;
+        long records = 0;
+        List<String> pendingItemIds = new ArrayList<>();
+        List<IndexEntry> pendingEntries = new ArrayList<>();
+        while (true) {
+            ByteBuffer buffer = mapped[segment];
+            int length = segmentSize - offset < Integer.BYTES ? 0 : buffer.getInt(offset);
+            if (length == END_OF_SEGMENT && segment + 1 < mapped.length) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+            if (length == COMMIT) {
+                if (offset + COMMIT_MARKER_BYTES > segmentSize || !isValidCommit(buffer, offset, pendingEntries)) {
+                    break;
+                }
+                for (int i = 0; i < pendingEntries.size(); i++) {
+                    IndexEntry entry = pendingEntries.get(i);
+                    index.merge(pendingItemIds.get(i), entry, IndexEntry::combine);
+                    nextSequence = Math.max(nextSequence, entry.sequence + 1);
+                }
+                records += pendingEntries.size();
+                pendingItemIds.clear();
+                pendingEntries.clear();
+                offset += COMMIT_MARKER_BYTES;
+                committedSegment = segment;
+                committedOffset = offset;
+                continue;
+            }
+            if (length < OrderRecord.HEADER_BYTES || offset + RECORD_HEADER_BYTES + length + Integer.BYTES > segmentSize
+                    || !isValid(buffer, offset, length)) {
+                break;
+            }
+            ByteBuffer payload = payloadOf(buffer, offset, length);
+            long sequence = payload.getLong(0);
+            pendingItemIds.add(new OrderRecord(payload).getItemId());
+            pendingEntries.add(new IndexEntry(1, globalPosition(segment, offset), sequence));
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        segment = committedSegment;
+        offset = committedOffset;
+        if (segmentSize - offset >= Integer.BYTES && mapped[segment].getInt(offset) != 0 || segment + 1 < mapped.length) {
+            log.warn("[order-store] discard uncommitted records from segment {} offset {} in {}", segment, offset, path);
+            for (int i = segment; i < mapped.length; i++) {
+                clear(mapped[i], i == segment ? offset : 0, segmentSize);
+                mapped[i].force();
+            }
+        }
+        size.add(records);
+        writeSegment = segment;
+        writeBuffer = mapped[segment].duplicate();
+        writeBuffer.position(offset);
+        writtenPosition = globalPosition(segment, offset);
+    }
+
+    /**
+     * 커밋 마커의 CRC 가 맞고, 마커의 레코드 수와 마지막 sequence 가 마커 앞에 읽은 레코드와 같은지 확인함
+     */
+    private boolean isValidCommit(ByteBuffer buffer, int offset, List<IndexEntry> pendingEntries) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + COMMIT_MARKER_BYTES);
+        body.position(offset + Integer.BYTES * 2);
+        body = body.slice();
+        crc.reset();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return false;
+        }
+        long lastSequence = body.getLong(0);
+        int count = body.getInt(Long.BYTES);
+        return count > 0 && count == pendingEntries.size() && pendingEntries.get(count - 1).sequence == lastSequence;
+    }
+
+    private boolean isValid(ByteBuffer buffer, int offset, int length) {
+        crc.reset();
+        crc.update(payloadOf(buffer, offset, length));
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    private static void clear(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    @Override
+    public void commit(List<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        byte[][] encoded = new byte[itemIds.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = itemIds.get(i).getBytes(StandardCharsets.UTF_8);
+            if (RECORD_HEADER_BYTES + OrderRecord.HEADER_BYTES + encoded[i].length + Integer.BYTES > segmentSize) {
+                throw new IllegalArgumentException("itemId is too long for segmentSize " + segmentSize + ": " + itemIds.get(i));
+            }
+        }
+        List<IndexEntry> entries = new ArrayList<>(encoded.length);
+        long end;
+        appendLock.lock();
+        int startSegment = writeSegment;
+        int startOffset = writeBuffer.position();
+        long startSequence = nextSequence;
+        try {
+            long now = System.currentTimeMillis();
+            for (byte[] itemId : encoded) {
+                entries.add(append(itemId, now));
+            }
+            appendCommitMarker(entries.get(entries.size() - 1).sequence, entries.size());
+            end = globalPosition(writeSegment, writeBuffer.position());
+            writtenPosition = end;
+        } catch (IOException | RuntimeException e) {
+            rollbackAppend(startSegment, startOffset, startSequence);
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("cannot write order store " + path, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            syncTo(end);
+        }
+        for (int i = 0; i < itemIds.size(); i++) {
+            index.merge(itemIds.get(i), entries.get(i), IndexEntry::combine);
+        }
+        size.add(itemIds.size());
+    }
+
+    private IndexEntry append(byte[] itemId, long timestampMillis) throws IOException {
+        int length = OrderRecord.HEADER_BYTES + itemId.length;
+        int recordBytes = RECORD_HEADER_BYTES + length;
+        ensureRemaining(recordBytes);
+        int offset = writeBuffer.position();
+        long sequence = nextSequence++;
+        writeBuffer.putInt(offset + Integer.BYTES, 0);
+        writeBuffer.position(offset + RECORD_HEADER_BYTES);
+        writeBuffer.putLong(sequence).putLong(timestampMillis).put(itemId);
+
+        crc.reset();
+        crc.update(payloadOf(writeBuffer, offset, length));
+        writeBuffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        writeBuffer.putInt(offset, length);
+        return new IndexEntry(1, globalPosition(writeSegment, offset), sequence);
+    }
+
+    private void appendCommitMarker(long lastSequence, int count) throws IOException {
+        ensureRemaining(COMMIT_MARKER_BYTES);
+        int offset = writeBuffer.position();
+        writeBuffer.putInt(offset, 0);
+        writeBuffer.position(offset + Integer.BYTES * 2);
+        writeBuffer.putLong(lastSequence).putInt(count);
+
+        ByteBuffer body = writeBuffer.duplicate();
+        body.limit(offset + COMMIT_MARKER_BYTES);
+        body.position(offset + Integer.BYTES * 2);
+        crc.reset();
+        crc.update(body);
+        writeBuffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        writeBuffer.putInt(offset, COMMIT);
+    }
+
+    /**
+     * bytes 와 END_OF_SEGMENT 를 쓸 자리가 없으면 다음 세그먼트로 넘어감
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (writeBuffer.remaining() < bytes + Integer.BYTES) {
+            int offset = writeBuffer.position();
+            nextSegment();
+            segments[writeSegment - 1].putInt(offset, END_OF_SEGMENT);
+        }
+    }
+
+    /**
+     * 다음 세그먼트를 매핑한 뒤에 쓰기 위치를 옮김 (매핑에 실패하면 쓰기 위치는 그대로)
+     */
+    private void nextSegment() throws IOException {
+        int next = writeSegment + 1;
+        MappedByteBuffer[] current = segments;
+        if (next == current.length) {
+            MappedByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[next] = map(next);
+            segments = grown;
+        }
+        writeSegment = next;
+        writeBuffer = segments[next].duplicate();
+        writeBuffer.position(0);
+    }
+
+    /**
+     * 실패한 커밋이 쓴 영역을 0 으로 지우고 쓰기 위치와 sequence 를 커밋 시작 전으로 되돌림
+     */
+    private void rollbackAppend(int startSegment, int startOffset, long startSequence) {
+        MappedByteBuffer[] current = segments;
+        int endOffset = writeBuffer.position();
+        for (int i = startSegment; i <= writeSegment; i++) {
+            clear(current[i], i == startSegment ? startOffset : 0, i == writeSegment ? endOffset : segmentSize);
+        }
+        writeSegment = startSegment;
+        writeBuffer = current[startSegment].duplicate();
+        writeBuffer.position(startOffset);
+        nextSequence = startSequence;
+    }
+
+    /**
+     * position 까지 디스크에 반영함, 다른 스레드가 이미 반영했으면 바로 반환함
+     */
+    private void syncTo(long position) {
+        forceLock.lock();
+        try {
+            if (forcedPosition >= position) {
+                return;
+            }
+            beforeForce.run();
+            long target = writtenPosition;
+            MappedByteBuffer[] current = segments;
+            int from = segmentOf(forcedPosition);
+            int to = segmentOf(Math.max(0, target - 1));
+            for (int i = from; i <= to && i < current.length; i++) {
+                current[i].force();
+            }
+            forcedPosition = target;
+            forces.increment();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * itemId 의 마지막 주문, 없으면 null
+     */
+    public OrderRecord find(String itemId) {
+        IndexEntry entry = index.get(itemId);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer segment = segments[segmentOf(entry.position)];
+        int offset = (int) (entry.position % segmentSize);
+        return new OrderRecord(payloadOf(segment, offset, segment.getInt(offset)).asReadOnlyBuffer());
+    }
+
+    @Override
+    public long count(String itemId) {
+        IndexEntry entry = index.get(itemId);
+        return entry == null ? 0 : entry.count;
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    public long getForces() {
+        return forces.sum();
+    }
+
+    @Override
+    public void close() {
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdown();
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            syncTo(writtenPosition);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer payloadOf(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + RECORD_HEADER_BYTES + length);
+        payload.position(offset + RECORD_HEADER_BYTES);
+        return payload.slice();
+    }
+
+    private long globalPosition(int segment, int offset) {
+        return (long) segment * segmentSize + offset;
+    }
+
+    private int segmentOf(long position) {
+        return (int) (position / segmentSize);
+    }
+
+    private static final class IndexEntry {
+        private final long count;
+        private final long position;
+        private final long sequence;
+
+        private IndexEntry(long count, long position, long sequence) {
+            this.count = count;
+            this.position = position;
+            this.sequence = sequence;
+        }
+
+        private static IndexEntry combine(IndexEntry a, IndexEntry b) {
+            IndexEntry latest = a.sequence >= b.sequence ? a : b;
+            return new IndexEntry(a.count + b.count, latest.position, latest.sequence);
+        }
+    }
+}
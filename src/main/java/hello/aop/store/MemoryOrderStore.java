@@ -0,0 +1,40 @@
+package hello.aop.store;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메모리 주문 저장소 (기본값)
+ * - 상품 id 별 주문 수만 보관하므로 같은 상품을 계속 주문해도 메모리가 늘지 않음
+ * - FileOrderStore 의 인덱스로도 사용함
+ */
+public class MemoryOrderStore implements OrderStore {
+
+    private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+
+    @Override
+    public void commit(List<String> itemIds) {
+        for (String itemId : itemIds) {
+            LongAdder count = counts.get(itemId);
+            if (count == null) {
+                count = counts.computeIfAbsent(itemId, id -> new LongAdder());
+            }
+            count.increment();
+        }
+        size.add(itemIds.size());
+    }
+
+    @Override
+    public long count(String itemId) {
+        LongAdder count = counts.get(itemId);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+}
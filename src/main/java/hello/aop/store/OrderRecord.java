@@ -0,0 +1,45 @@
+package hello.aop.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 저장된 주문 하나, 매핑된 로그의 레코드 영역을 복사하지 않고 그대로 읽음
+ * - payload : [long sequence][long timestampMillis][itemId (UTF-8)]
+ */
+public class OrderRecord {
+
+    static final int HEADER_BYTES = Long.BYTES * 2;
+
+    private final ByteBuffer payload;
+
+    OrderRecord(ByteBuffer payload) {
+        this.payload = payload;
+    }
+
+    public long getSequence() {
+        return payload.getLong(0);
+    }
+
+    public long getTimestampMillis() {
+        return payload.getLong(Long.BYTES);
+    }
+
+    public String getItemId() {
+        ByteBuffer itemId = payload.duplicate();
+        itemId.position(HEADER_BYTES);
+        return StandardCharsets.UTF_8.decode(itemId).toString();
+    }
+
+    /**
+     * 레코드 영역 (읽기 전용, 복사하지 않음)
+     */
+    public ByteBuffer getPayload() {
+        return payload.duplicate();
+    }
+
+    @Override
+    public String toString() {
+        return "OrderRecord{sequence=" + getSequence() + ", itemId=" + getItemId() + ", timestampMillis=" + getTimestampMillis() + "}";
+    }
+}
@@ -0,0 +1,23 @@
+package hello.aop.store;
+
+import java.util.List;
+
+/**
+ * 주문 저장소
+ * - commit 은 한 트랜잭션에서 쓴 주문을 한 번에 반영하고, 반환되면 반영이 끝난 것임 (파일 저장소는 디스크에 기록된 것)
+ * - 주문은 상품 id 별로 몇 번 저장됐는지만 관리함
+ */
+public interface OrderStore {
+
+    void commit(List<String> itemIds);
+
+    /**
+     * 상품 id 로 커밋된 주문 수
+     */
+    long count(String itemId);
+
+    /**
+     * 커밋된 전체 주문 수
+     */
+    long size();
+}
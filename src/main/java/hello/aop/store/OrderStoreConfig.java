@@ -0,0 +1,42 @@
+package hello.aop.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 주문 저장소 설정
+ * - order.store.type : memory (기본) | file | mapped
+ * - order.store.path : file, mapped 일 때 저장 파일 경로
+ * - order.store.max-batch : file 일 때 fsync 한 번에 함께 반영할 최대 커밋 수 (1 이면 커밋마다 fsync)
+ * - order.store.fsync : file 일 때 커밋마다 디스크까지 반영할지 여부
+ * - order.store.mapped.segment-size : mapped 일 때 한 번에 매핑하는 파일 크기
+ * - order.store.mapped.fsync-policy, order.store.mapped.fsync-interval-ms : mapped 일 때 디스크에 반영하는 시점 (FsyncPolicy)
+ * (참고) FileOrderStore, MappedOrderStore 는 AutoCloseable 이므로 컨테이너가 종료될 때 close() 가 호출됨
+ */
+@Configuration
+public class OrderStoreConfig {
+
+    @Bean
+    public OrderStore orderStore(@Value("${order.store.type:memory}") String type,
+                                 @Value("${order.store.path:build/order-store/orders.log}") String path,
+                                 @Value("${order.store.max-batch:1024}") int maxBatch,
+                                 @Value("${order.store.fsync:true}") boolean fsync,
+                                 @Value("${order.store.mapped.segment-size:67108864}") int segmentSize,
+                                 @Value("${order.store.mapped.fsync-policy:ALWAYS}") FsyncPolicy fsyncPolicy,
+                                 @Value("${order.store.mapped.fsync-interval-ms:100}") long fsyncIntervalMillis) {
+        switch (type) {
+            case "memory": return new MemoryOrderStore();
+            case "file": return new FileOrderStore(Paths.get(path), maxBatch, fsync);
+            case "mapped": return new MappedOrderStore(Paths.get(path), segmentSize, fsyncPolicy, fsyncIntervalMillis);
+            default: throw new IllegalArgumentException("unknown order store type: " + type);
+        }
+    }
+
+    @Bean
+    public OrderTransactionManager orderTransactionManager(OrderStore orderStore) {
+        return new OrderTransactionManager(orderStore);
+    }
+}
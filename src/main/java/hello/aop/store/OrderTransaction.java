@@ -0,0 +1,51 @@
+package hello.aop.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스레드에 묶인 트랜잭션
+ * - 트랜잭션 안에서 저장한 주문은 커밋하기 전까지 writes 에만 쌓이고 저장소에 반영되지 않음
+ * - depth : 이미 트랜잭션이 있는 상태에서 다시 시작하면 새로 만들지 않고 참여만 함 (가장 바깥 트랜잭션이 끝날 때 커밋, 롤백)
+ */
+public class OrderTransaction {
+
+    private final List<String> writes = new ArrayList<>();
+    private int depth = 1;
+    private boolean rollbackOnly;
+
+    void write(String itemId) {
+        writes.add(itemId);
+    }
+
+    void writeAll(List<String> itemIds) {
+        writes.addAll(itemIds);
+    }
+
+    List<String> getWrites() {
+        return writes;
+    }
+
+    void join() {
+        depth++;
+    }
+
+    /**
+     * @return 가장 바깥 트랜잭션이 끝났으면 true
+     */
+    boolean leave() {
+        return --depth == 0;
+    }
+
+    void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    public int size() {
+        return writes.size();
+    }
+}
@@ -0,0 +1,75 @@
+package hello.aop.store;
+
+import java.util.List;
+
+/**
+ * 주문 저장소 트랜잭션 관리
+ * - begin() 으로 현재 스레드에 트랜잭션을 묶고, commit(), rollback() 으로 끝냄
+ * - 안쪽 트랜잭션은 바깥 트랜잭션에 참여함, 안쪽에서 롤백하면 바깥 트랜잭션도 커밋하지 않고 롤백함 (rollback-only)
+ * - write(), writeAll() 은 트랜잭션이 있으면 트랜잭션에 쌓고, 없으면 바로 커밋함 (auto commit)
+ * - 트랜잭션이 끝나면 스레드 로컬을 비움 (스레드 풀, 가상 스레드 모두 다음 트랜잭션에 남지 않도록)
+ */
+public class OrderTransactionManager {
+
+    private static final ThreadLocal<OrderTransaction> CURRENT = new ThreadLocal<>();
+
+    private final OrderStore store;
+
+    public OrderTransactionManager(OrderStore store) {
+        this.store = store;
+    }
+
+    public OrderTransaction begin() {
+        OrderTransaction transaction = CURRENT.get();
+        if (transaction != null) {
+            transaction.join();
+            return transaction;
+        }
+        transaction = new OrderTransaction();
+        CURRENT.set(transaction);
+        return transaction;
+    }
+
+    public void commit(OrderTransaction transaction) {
+        if (!transaction.leave()) {
+            return;
+        }
+        CURRENT.remove();
+        if (transaction.isRollbackOnly()) {
+            throw new IllegalStateException("transaction was marked rollback-only");
+        }
+        store.commit(transaction.getWrites());
+    }
+
+    public void rollback(OrderTransaction transaction) {
+        transaction.setRollbackOnly();
+        if (transaction.leave()) {
+            CURRENT.remove();
+        }
+    }
+
+    public void write(String itemId) {
+        OrderTransaction transaction = CURRENT.get();
+        if (transaction == null) {
+            store.commit(List.of(itemId));
+        } else {
+            transaction.write(itemId);
+        }
+    }
+
+    public void writeAll(List<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        OrderTransaction transaction = CURRENT.get();
+        if (transaction == null) {
+            store.commit(itemIds);
+        } else {
+            transaction.writeAll(itemIds);
+        }
+    }
+
+    public OrderStore getStore() {
+        return store;
+    }
+}
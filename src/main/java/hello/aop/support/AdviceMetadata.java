@@ -0,0 +1,126 @@
+package hello.aop.support;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 어드바이스가 호출마다 다시 구하던 메서드 정보를 한 번만 계산해 둔 것
+ * - 메서드 애노테이션 (@annotation 과 같은 정보, 인터페이스 메서드의 애노테이션도 포함)
+ * - 클래스 애노테이션 (@target, @within 과 같은 정보)
+ * - 미리 만든 시그니처 문자열, 파라미터 타입과 이름
+ * - 만든 뒤에는 바뀌지 않으므로 여러 스레드가 락 없이 읽음
+ */
+public class AdviceMetadata {
+
+    private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Method method;
+    private final Class<?> targetClass;
+    private final String signature;
+    private final String shortSignature;
+    private final Class<?>[] parameterTypes;
+    private final String[] parameterNames;
+    private final Map<Class<? extends Annotation>, Annotation> methodAnnotations;
+    private final Map<Class<? extends Annotation>, Annotation> classAnnotations;
+
+    AdviceMetadata(Method invokedMethod, Class<?> targetClass) {
+        Method specificMethod = ClassUtils.getMostSpecificMethod(invokedMethod, targetClass);
+        this.method = specificMethod;
+        this.targetClass = targetClass;
+        this.parameterTypes = specificMethod.getParameterTypes();
+        String[] names = parameterNameDiscoverer.getParameterNames(specificMethod);
+        this.parameterNames = names != null ? names : new String[0];
+        this.methodAnnotations = annotationsOf(specificMethod, invokedMethod);
+        this.classAnnotations = annotationsOf(targetClass);
+        this.signature = renderSignature(specificMethod);
+        this.shortSignature = specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName() + "(..)";
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * joinPoint.getSignature().toString() 과 같은 형식, ex) String hello.aop.member.MemberServiceImpl.hello(String)
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * joinPoint.getSignature().toShortString() 과 같은 형식, ex) MemberServiceImpl.hello(..)
+     */
+    public String getShortSignature() {
+        return shortSignature;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    public Class<?> getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * -parameters 로 컴파일하지 않았으면 빈 배열일 수 있음
+     */
+    public String getParameterName(int index) {
+        return index < parameterNames.length ? parameterNames[index] : "arg" + index;
+    }
+
+    public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+        return annotationType.cast(methodAnnotations.get(annotationType));
+    }
+
+    public <A extends Annotation> A getClassAnnotation(Class<A> annotationType) {
+        return annotationType.cast(classAnnotations.get(annotationType));
+    }
+
+    @Override
+    public String toString() {
+        return signature;
+    }
+
+    private static Map<Class<? extends Annotation>, Annotation> annotationsOf(Method specificMethod, Method invokedMethod) {
+        Map<Class<? extends Annotation>, Annotation> annotations = new HashMap<>();
+        for (Annotation annotation : specificMethod.getAnnotations()) {
+            annotations.put(annotation.annotationType(), annotation);
+        }
+        if (invokedMethod != specificMethod) {
+            for (Annotation annotation : invokedMethod.getAnnotations()) {
+                annotations.putIfAbsent(annotation.annotationType(), annotation);
+            }
+        }
+        return annotations.isEmpty() ? Collections.emptyMap() : annotations;
+    }
+
+    private static Map<Class<? extends Annotation>, Annotation> annotationsOf(Class<?> type) {
+        Map<Class<? extends Annotation>, Annotation> annotations = new HashMap<>();
+        for (Annotation annotation : type.getAnnotations()) {
+            annotations.put(annotation.annotationType(), annotation);
+        }
+        return annotations.isEmpty() ? Collections.emptyMap() : annotations;
+    }
+
+    private static String renderSignature(Method method) {
+        StringJoiner parameters = new StringJoiner(",", "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+        return method.getReturnType().getSimpleName() + " " + method.getDeclaringClass().getName()
+                + "." + method.getName() + parameters;
+    }
+}
@@ -0,0 +1,41 @@
+package hello.aop.support;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 대상 클래스, 메서드별 AdviceMetadata 저장소
+ * - 대상 클래스는 ClassValue 로, 메서드는 ConcurrentHashMap 으로 찾음 (읽기는 락 없음)
+ * - 같은 인터페이스 메서드라도 구현 클래스마다 애노테이션이 다를 수 있으므로 대상 클래스별로 따로 보관함
+ * - 프록시를 만들 때 AdviceMetadataPostProcessor 가 미리 채우고, 빠진 것은 처음 호출할 때 채움
+ */
+public final class AdviceMetadataCache {
+
+    private static final ClassValue<ConcurrentMap<Method, AdviceMetadata>> CACHE = new ClassValue<ConcurrentMap<Method, AdviceMetadata>>() {
+        @Override
+        protected ConcurrentMap<Method, AdviceMetadata> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private AdviceMetadataCache() {
+    }
+
+    public static AdviceMetadata get(JoinPoint joinPoint) {
+        Method method = JoinPoints.method(joinPoint);
+        Object target = joinPoint.getTarget();
+        return get(target != null ? target.getClass() : method.getDeclaringClass(), method);
+    }
+
+    public static AdviceMetadata get(Class<?> targetClass, Method method) {
+        ConcurrentMap<Method, AdviceMetadata> metadataByMethod = CACHE.get(targetClass);
+        AdviceMetadata metadata = metadataByMethod.get(method);
+        if (metadata == null) {
+            metadata = metadataByMethod.computeIfAbsent(method, m -> new AdviceMetadata(m, targetClass));
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,47 @@
+package hello.aop.support;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 프록시가 만들어질 때 대상 클래스의 public 메서드와 프록시 인터페이스 메서드의 AdviceMetadata 를 미리 만들어 둠
+ * - 자동 프록시 생성기(HIGHEST_PRECEDENCE) 다음에 실행되어야 하므로 LOWEST_PRECEDENCE
+ * - 프록시가 아닌 빈은 건너뜀
+ */
+@Component
+public class AdviceMetadataPostProcessor implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!AopUtils.isAopProxy(bean) || !(bean instanceof Advised)) {
+            return bean;
+        }
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        for (Method method : targetClass.getMethods()) {
+            if (isAdvisable(method)) {
+                AdviceMetadataCache.get(targetClass, method);
+            }
+        }
+        for (Class<?> proxiedInterface : ((Advised) bean).getProxiedInterfaces()) {
+            for (Method method : proxiedInterface.getMethods()) {
+                AdviceMetadataCache.get(targetClass, method);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static boolean isAdvisable(Method method) {
+        return method.getDeclaringClass() != Object.class && !Modifier.isStatic(method.getModifiers());
+    }
+}
@@ -0,0 +1,43 @@
+package hello.aop.support;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * 어드바이스에서 호출마다 쓰는 조인 포인트 조회를 객체 생성 없이 처리함
+ */
+public final class JoinPoints {
+
+    private JoinPoints() {
+    }
+
+    /**
+     * 호출된 메서드
+     * - 스프링 프록시의 joinPoint.getSignature() 는 호출마다 MethodSignature 객체를 새로 만듬
+     *   그래서 ExposeInvocationInterceptor 가 노출한 현재 호출에서 Method 를 바로 꺼냄
+     * - 컴파일 타임 위빙처럼 스프링 프록시가 아니면 시그니처가 미리 만들어져 있으므로 그대로 사용함
+     */
+    public static Method method(JoinPoint joinPoint) {
+        if (joinPoint instanceof MethodInvocationProceedingJoinPoint) {
+            return ExposeInvocationInterceptor.currentInvocation().getMethod();
+        }
+        return ((MethodSignature) joinPoint.getSignature()).getMethod();
+    }
+
+    /**
+     * 호출 인자
+     * - 스프링 프록시의 joinPoint.getArgs() 는 인자 배열을 복사해서 반환하므로 현재 호출의 인자 배열을 복사하지 않고 꺼냄
+     *   반환한 배열은 대상에 그대로 전달되므로 읽기만 해야 함
+     * - 컴파일 타임 위빙이면 joinPoint.getArgs() 를 그대로 사용함
+     */
+    public static Object[] args(JoinPoint joinPoint) {
+        if (joinPoint instanceof MethodInvocationProceedingJoinPoint) {
+            return ExposeInvocationInterceptor.currentInvocation().getArguments();
+        }
+        return joinPoint.getArgs();
+    }
+}
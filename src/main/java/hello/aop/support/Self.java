@@ -0,0 +1,16 @@
+package hello.aop.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 필드에 자기 자신의 최종 빈(프록시가 적용됐으면 프록시)을 주입함
+ * - 내부 호출을 self.method() 로 하면 프록시를 거치므로 AOP 가 적용됨
+ * - 주입은 SelfInjectionPostProcessor 가 프록시 생성 이후에 한 번만 함
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Self {
+}
@@ -0,0 +1,78 @@
+package hello.aop.support;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Self 필드에 자기 자신의 최종 빈을 주입함
+ * - 자동 프록시 생성기(HIGHEST_PRECEDENCE) 다음에 실행되어야 하므로 LOWEST_PRECEDENCE
+ *   postProcessAfterInitialization 에 들어오는 빈이 이미 프록시이므로 프록시 안쪽의 실제 객체(target)의 필드에 프록시를 넣음
+ * - 빈 생성이 끝난 뒤에 넣기 때문에 자기 자신을 주입 받는 순환 참조가 생기지 않음 (spring.main.allow-circular-references 불필요)
+ * - 호출할 때마다 컨테이너에서 조회하는 ObjectProvider(CallServiceV2) 와 달리 필드를 읽기만 함
+ * - 프록시가 아니면(AOP 가 적용되지 않았거나 컴파일 타임 위빙) 자기 자신을 넣음
+ * - @Self 필드 목록은 클래스별로 ClassValue 에 캐시함
+ */
+@Component
+public class SelfInjectionPostProcessor implements BeanPostProcessor, Ordered {
+
+    private static final ClassValue<Field[]> SELF_FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            ReflectionUtils.doWithFields(type, field -> {
+                ReflectionUtils.makeAccessible(field);
+                fields.add(field);
+            }, field -> field.isAnnotationPresent(Self.class) && !Modifier.isStatic(field.getModifiers()));
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Field[] fields = SELF_FIELDS.get(targetClass);
+        if (fields.length == 0) {
+            return bean;
+        }
+        Object target = targetOf(bean);
+        for (Field field : fields) {
+            if (!field.getType().isInstance(bean)) {
+                throw new BeanInstantiationException(targetClass,
+                        "@Self field " + field.getName() + " is not assignable from " + bean.getClass().getName());
+            }
+            ReflectionUtils.setField(field, target, bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static Object targetOf(Object bean) {
+        if (!(bean instanceof Advised)) {
+            return bean;
+        }
+        TargetSource targetSource = ((Advised) bean).getTargetSource();
+        if (!targetSource.isStatic()) {
+            throw new BeanInstantiationException(AopUtils.getTargetClass(bean), "@Self requires a singleton target");
+        }
+        try {
+            return targetSource.getTarget();
+        } catch (Exception e) {
+            throw new BeanInstantiationException(AopUtils.getTargetClass(bean), "cannot resolve proxy target", e);
+        }
+    }
+}
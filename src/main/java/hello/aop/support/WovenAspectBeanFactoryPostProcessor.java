@@ -0,0 +1,51 @@
+package hello.aop.support;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 컴파일 타임 위빙(-PaopMode=ctw) 으로 위빙된 애스펙트를 스프링 빈으로 등록할 때 aspectOf() 인스턴스를 사용하도록 바꿈
+ * - ajc 가 위빙한 @Aspect 클래스에는 static aspectOf() 가 추가되고, 위빙된 코드는 항상 이 인스턴스의 어드바이스를 호출함
+ * - 빈을 새로 만들면 설정(@Value)과 통계(RetryBudget, LatencyMetrics)가 실제로 동작하는 인스턴스와 달라지므로
+ *   빈 정의의 팩토리 메서드를 aspectOf 로 지정함 (XML 설정의 factory-method="aspectOf" 와 같음)
+ * - 위빙되지 않은 애스펙트(프록시 모드)는 aspectOf() 가 없으므로 그대로 둠
+ */
+@Component
+public class WovenAspectBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (!(definition instanceof AbstractBeanDefinition)
+                    || definition.getBeanClassName() == null
+                    || definition.getFactoryBeanName() != null
+                    || definition.getFactoryMethodName() != null) {
+                continue;
+            }
+            Class<?> beanClass = ClassUtils.resolveClassName(definition.getBeanClassName(), beanFactory.getBeanClassLoader());
+            if (isWoven(beanClass)) {
+                ((AbstractBeanDefinition) definition).setFactoryMethodName("aspectOf");
+            }
+        }
+    }
+
+    /**
+     * ajc 로 위빙된 애스펙트 클래스인지 확인함
+     */
+    public static boolean isWoven(Class<?> beanClass) {
+        if (!beanClass.isAnnotationPresent(Aspect.class)) {
+            return false;
+        }
+        Method aspectOf = ClassUtils.getMethodIfAvailable(beanClass, "aspectOf");
+        return aspectOf != null && Modifier.isStatic(aspectOf.getModifiers()) && aspectOf.getReturnType() == beanClass;
+    }
+}
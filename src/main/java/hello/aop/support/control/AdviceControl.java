@@ -0,0 +1,333 @@
+package hello.aop.support.control;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aspectj.lang.JoinPoint;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 실행 중인 프록시의 애스펙트 어드바이스를 켜고 끄거나 포인트컷 표현식을 바꿈 (컨텍스트 재시작 없음)
+ * - 어드바이스 id : 애스펙트 빈 이름#어드바이스 메서드 이름 (ex) hello.aop.order.aop.AspectV6Advice#doBefore
+ *   선택자로 id, 애스펙트 빈 이름, 애스펙트 클래스 단순 이름(ex) AspectV6Advice, 단순 이름#메서드 이름을 사용할 수 있음
+ * - 프록시의 어드바이저 목록(Advised.addAdvisor, removeAdvisor)은 건드리지 않음
+ *   프록시를 모을 때 인터셉터 체인을 만드는 AdvisorChainFactory 를 바꿔 끼우고, 바꿀 때마다 프록시별 어드바이저 배열을 새로 만들어
+ *   volatile 필드 하나로 교체함 (호출 중인 스레드는 이전 배열이나 새 배열 중 하나만 봄)
+ * - 끄기 : 새 배열에서 빼버리므로 꺼진 어드바이스는 호출 경로에 남지 않음 (어드바이스 안에서 플래그를 확인하는 방식이 아님)
+ * - 켜기 : 프록시가 만들어질 때의 어드바이저 순서대로 원래 자리에 다시 넣음
+ * - 포인트컷 변경 : 같은 어드바이스를 새 표현식의 어드바이저로 바꿔 끼움
+ *   이미 프록시가 만들어진 빈 안에서만 적용 대상 메서드가 바뀜, 프록시가 없는 빈을 새로 대상으로 만들지는 않음
+ *   인자를 바인딩하는 어드바이스(ex) @annotation(trace))는 바인딩이 원래 표현식 기준이라 바꿀 수 없음
+ * - 나중에 만들어지는 프록시(프로토타입 빈 등)에도 그때의 켜기/끄기, 포인트컷 상태를 그대로 적용함
+ * - 프록시는 자동 프록시 생성기 다음(LOWEST_PRECEDENCE)에 BeanPostProcessor 로 모아 둠
+ *   프록시는 약한 참조로만 가지므로 버려진 프로토타입 빈의 프록시는 GC 되고, 목록에서는 다음 프록시를 모을 때나 상태를 바꿀 때 지움
+ * - spring.jmx.enabled=true 면 JMX(hello.aop:type=AdviceControl) 로도 조작할 수 있음
+ */
+@Slf4j
+@Component
+@ManagedResource(objectName = "hello.aop:type=AdviceControl")
+public class AdviceControl implements BeanPostProcessor, BeanFactoryAware, Ordered {
+
+    private final List<ProxyEntry> proxies = new ArrayList<>();
+    private final Map<String, AdviceState> advices = new LinkedHashMap<>();
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public synchronized Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Advised) || ((Advised) bean).isFrozen()) {
+            return bean;
+        }
+        Advisor[] advisors = ((Advised) bean).getAdvisors();
+        boolean controllable = false;
+        for (Advisor advisor : advisors) {
+            String id = idOf(advisor);
+            if (id != null) {
+                controllable = true;
+                advices.computeIfAbsent(id, key -> new AdviceState(key, advisor));
+            }
+        }
+        if (!controllable) {
+            return bean;
+        }
+        AdvisedSupport config = SnapshotAdvisorChainFactory.configOf(bean);
+        if (config == null) {
+            log.warn("[advice-control] cannot control proxy {}: {}", beanName, bean.getClass().getName());
+            return bean;
+        }
+        ProxyEntry proxy = new ProxyEntry(bean, beanName, advisors, new SnapshotAdvisorChainFactory(config));
+        // 이미 끄거나 포인트컷을 바꾼 어드바이스는 새 프록시에도 같은 상태로 적용함
+        proxy.update(advices);
+        proxies.removeIf(ProxyEntry::isCollected);
+        proxies.add(proxy);
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public synchronized List<AdviceInfo> list() {
+        proxies.removeIf(ProxyEntry::isCollected);
+        List<AdviceInfo> result = new ArrayList<>();
+        for (AdviceState state : advices.values()) {
+            int count = 0;
+            for (ProxyEntry proxy : proxies) {
+                if (proxy.contains(state.id)) {
+                    count++;
+                }
+            }
+            result.add(new AdviceInfo(state.id, state.expression(), state.enabled, count));
+        }
+        return result;
+    }
+
+    @ManagedOperation(description = "Lists advices and their state")
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (AdviceInfo info : list()) {
+            sb.append(info).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 선택자에 해당하는 어드바이스를 모든 프록시에서 뺌
+     * @return 바뀐 어드바이스 수
+     */
+    @ManagedOperation(description = "Removes matching advices from live proxies")
+    public synchronized int disable(String selector) {
+        List<AdviceState> selected = select(selector);
+        for (AdviceState state : selected) {
+            state.enabled = false;
+        }
+        update();
+        log.info("[advice-control] disable {} => {}", selector, selected.size());
+        return selected.size();
+    }
+
+    /**
+     * 선택자에 해당하는 어드바이스를 모든 프록시에 원래 순서대로 다시 넣음
+     * @return 바뀐 어드바이스 수
+     */
+    @ManagedOperation(description = "Restores matching advices on live proxies")
+    public synchronized int enable(String selector) {
+        List<AdviceState> selected = select(selector);
+        for (AdviceState state : selected) {
+            state.enabled = true;
+        }
+        update();
+        log.info("[advice-control] enable {} => {}", selector, selected.size());
+        return selected.size();
+    }
+
+    /**
+     * 어드바이스 하나의 포인트컷 표현식을 바꿈
+     */
+    @ManagedOperation(description = "Replaces the pointcut expression of one advice on live proxies")
+    public synchronized void setPointcut(String selector, String expression) {
+        AdviceState state = selectOne(selector);
+        if (bindsArguments(state.advice.getAspectJAdviceMethod())) {
+            throw new IllegalArgumentException("advice binds arguments, its pointcut cannot be replaced: " + state.id);
+        }
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setPointcutDeclarationScope(state.advice.getAspectJAdviceMethod().getDeclaringClass());
+        pointcut.setExpression(expression);
+        pointcut.setBeanFactory(beanFactory);
+        // 잘못된 표현식은 프록시를 바꾸기 전에 예외가 나도록 미리 파싱함
+        pointcut.getClassFilter();
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, state.advice);
+        advisor.setOrder(state.order);
+        state.current = advisor;
+        update();
+        log.info("[advice-control] pointcut {} => {}", state.id, expression);
+    }
+
+    /**
+     * 어드바이스 하나를 처음 상태(원래 포인트컷, 켜짐)로 되돌림
+     */
+    @ManagedOperation(description = "Restores the original pointcut of matching advices and enables them")
+    public synchronized void reset(String selector) {
+        for (AdviceState state : select(selector)) {
+            state.current = state.original;
+        }
+        enable(selector);
+    }
+
+    private void update() {
+        Iterator<ProxyEntry> iterator = proxies.iterator();
+        while (iterator.hasNext()) {
+            ProxyEntry proxy = iterator.next();
+            if (proxy.isCollected()) {
+                iterator.remove();
+            } else {
+                proxy.update(advices);
+            }
+        }
+    }
+
+    private AdviceState selectOne(String selector) {
+        List<AdviceState> selected = select(selector);
+        if (selected.size() != 1) {
+            throw new IllegalArgumentException("selector must match exactly one advice: " + selector + " => " + selected.size());
+        }
+        return selected.get(0);
+    }
+
+    private List<AdviceState> select(String selector) {
+        List<AdviceState> selected = new ArrayList<>();
+        for (AdviceState state : advices.values()) {
+            if (state.matches(selector)) {
+                selected.add(state);
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("no advice matches " + selector + ", advices=" + advices.keySet());
+        }
+        return selected;
+    }
+
+    private static String idOf(Advisor advisor) {
+        Advice advice = advisor.getAdvice();
+        if (!(advice instanceof AbstractAspectJAdvice)) {
+            return null;
+        }
+        AbstractAspectJAdvice aspectJAdvice = (AbstractAspectJAdvice) advice;
+        return aspectJAdvice.getAspectName() + "#" + aspectJAdvice.getAspectJAdviceMethod().getName();
+    }
+
+    /**
+     * JoinPoint 외의 파라미터가 있으면 포인트컷(args, @annotation, returning, throwing)에서 값을 바인딩하는 어드바이스임
+     */
+    private static boolean bindsArguments(Method adviceMethod) {
+        for (Class<?> parameterType : adviceMethod.getParameterTypes()) {
+            if (!JoinPoint.class.isAssignableFrom(parameterType) && parameterType != JoinPoint.StaticPart.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int orderOf(Advisor advisor) {
+        return advisor instanceof Ordered ? ((Ordered) advisor).getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static final class AdviceState {
+
+        private final String id;
+        private final AbstractAspectJAdvice advice;
+        private final Advisor original;
+        private final int order;
+        private Advisor current;
+        private boolean enabled = true;
+
+        private AdviceState(String id, Advisor original) {
+            this.id = id;
+            this.advice = (AbstractAspectJAdvice) original.getAdvice();
+            this.original = original;
+            this.order = orderOf(original);
+            this.current = original;
+        }
+
+        private String expression() {
+            if (current instanceof PointcutAdvisor && ((PointcutAdvisor) current).getPointcut() instanceof AspectJExpressionPointcut) {
+                return ((AspectJExpressionPointcut) ((PointcutAdvisor) current).getPointcut()).getExpression();
+            }
+            return advice.getPointcut().getExpression();
+        }
+
+        private boolean matches(String selector) {
+            if (id.equals(selector) || advice.getAspectName().equals(selector)) {
+                return true;
+            }
+            String simpleName = advice.getAspectJAdviceMethod().getDeclaringClass().getSimpleName();
+            return simpleName.equals(selector) || (simpleName + "#" + advice.getAspectJAdviceMethod().getName()).equals(selector);
+        }
+    }
+
+    /**
+     * 프록시 하나와, 프록시가 만들어질 때의 어드바이저 자리별 id
+     * - 프록시는 약한 참조로 가짐, 체인 팩토리는 프록시가 아니라 프록시 설정(AdvisedSupport)에서만 참조되므로 프록시를 붙잡지 않음
+     */
+    private static final class ProxyEntry {
+
+        private final WeakReference<Object> proxy;
+        private final String beanName;
+        private final Advisor[] slots;
+        private final String[] ids;
+        private final SnapshotAdvisorChainFactory chainFactory;
+
+        private ProxyEntry(Object proxy, String beanName, Advisor[] advisors, SnapshotAdvisorChainFactory chainFactory) {
+            this.proxy = new WeakReference<>(proxy);
+            this.beanName = beanName;
+            this.slots = advisors.clone();
+            this.ids = new String[advisors.length];
+            this.chainFactory = chainFactory;
+            for (int i = 0; i < advisors.length; i++) {
+                ids[i] = idOf(advisors[i]);
+            }
+        }
+
+        private boolean isCollected() {
+            return proxy.get() == null;
+        }
+
+        private boolean contains(String id) {
+            for (String slotId : ids) {
+                if (id.equals(slotId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 어드바이스 상태대로 어드바이저 배열을 새로 만들어 통째로 교체함
+         * - 꺼진 어드바이스는 빼고, 포인트컷을 바꾼 어드바이스는 바꾼 어드바이저를 원래 자리에 넣음
+         * - 포인트컷을 바꾸지 않은 어드바이스는 이 프록시가 원래 가지고 있던 어드바이저를 그대로 씀
+         */
+        private void update(Map<String, AdviceState> advices) {
+            List<Advisor> advisors = new ArrayList<>(slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                AdviceState state = ids[i] == null ? null : advices.get(ids[i]);
+                if (state == null) {
+                    advisors.add(slots[i]);
+                } else if (state.enabled) {
+                    advisors.add(state.current == state.original ? slots[i] : state.current);
+                }
+            }
+            chainFactory.setAdvisors(advisors.toArray(new Advisor[0]));
+        }
+
+        @Override
+        public String toString() {
+            return beanName;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package hello.aop.support.control;
+
+/**
+ * AdviceControl 이 관리하는 어드바이스 하나의 현재 상태
+ */
+public class AdviceInfo {
+
+    private final String id;
+    private final String expression;
+    private final boolean enabled;
+    private final int proxies;
+
+    AdviceInfo(String id, String expression, boolean enabled, int proxies) {
+        this.id = id;
+        this.expression = expression;
+        this.enabled = enabled;
+        this.proxies = proxies;
+    }
+
+    /**
+     * 애스펙트 빈 이름#어드바이스 메서드 이름
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 이 어드바이스가 들어 있는 프록시 수
+     */
+    public int getProxies() {
+        return proxies;
+    }
+
+    @Override
+    public String toString() {
+        return id + (enabled ? "" : " (disabled)") + " proxies=" + proxies + " expression=" + expression;
+    }
+}
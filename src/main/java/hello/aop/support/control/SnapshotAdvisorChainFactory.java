@@ -0,0 +1,123 @@
+package hello.aop.support.control;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.aop.framework.AdvisorChainFactory;
+import org.springframework.aop.framework.DefaultAdvisorChainFactory;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 프록시 설정(AdvisedSupport)의 어드바이저 목록 대신 volatile 로 교체되는 어드바이저 배열로 인터셉터 체인을 만듦
+ * - 배열과 메서드별 체인 캐시를 한 스냅샷에 묶어서 통째로 바꾸므로, 바꾸는 도중의 체인이나 이전 배열로 만든 체인이 남지 않음
+ * - 프록시 설정의 메서드별 캐시는 어드바이저 목록이 바뀔 때만 비워지므로 아무것도 저장하지 않는 맵으로 바꾸고, 캐시는 스냅샷이 가짐
+ * - 프록시 설정은 Advised 인터페이스로 꺼낼 수 없어서 JDK 동적 프록시, CGLIB 프록시의 콜백에서 찾음 (configOf)
+ */
+final class SnapshotAdvisorChainFactory implements AdvisorChainFactory {
+
+    private static final AdvisorChainFactory DEFAULT = new DefaultAdvisorChainFactory();
+    private static final Field METHOD_CACHE = findField(AdvisedSupport.class, "methodCache", Map.class);
+
+    private final boolean preFiltered;
+    private volatile Snapshot snapshot;
+
+    SnapshotAdvisorChainFactory(AdvisedSupport config) {
+        this.preFiltered = config.isPreFiltered();
+        this.snapshot = new Snapshot(config.getAdvisors(), preFiltered);
+        config.setAdvisorChainFactory(this);
+        ReflectionUtils.setField(METHOD_CACHE, config, NoMethodCache.INSTANCE);
+    }
+
+    void setAdvisors(Advisor[] advisors) {
+        snapshot = new Snapshot(advisors, preFiltered);
+    }
+
+    @Override
+    public List<Object> getInterceptorsAndDynamicInterceptionAdvice(Advised config, Method method, @Nullable Class<?> targetClass) {
+        Snapshot current = snapshot;
+        List<Object> chain = current.chains.get(method);
+        if (chain == null) {
+            chain = current.chains.computeIfAbsent(method,
+                    key -> DEFAULT.getInterceptorsAndDynamicInterceptionAdvice(current.config, key, targetClass));
+        }
+        return chain;
+    }
+
+    /**
+     * 프록시가 위임하는 AdvisedSupport, 메서드별 캐시를 바꿀 수 없는 스프링 버전이면 null
+     */
+    @Nullable
+    static AdvisedSupport configOf(Object proxy) {
+        if (METHOD_CACHE == null) {
+            return null;
+        }
+        Object handler = null;
+        if (Proxy.isProxyClass(proxy.getClass())) {
+            handler = Proxy.getInvocationHandler(proxy);
+        } else if (proxy instanceof Factory) {
+            for (Callback callback : ((Factory) proxy).getCallbacks()) {
+                if (callback != null && findField(callback.getClass(), "advised", AdvisedSupport.class) != null) {
+                    handler = callback;
+                    break;
+                }
+            }
+        }
+        Field field = handler == null ? null : findField(handler.getClass(), "advised", AdvisedSupport.class);
+        return field == null ? null : (AdvisedSupport) ReflectionUtils.getField(field, handler);
+    }
+
+    @Nullable
+    private static Field findField(Class<?> type, String name, Class<?> fieldType) {
+        Field field = ReflectionUtils.findField(type, name);
+        if (field == null || !fieldType.isAssignableFrom(field.getType())) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private static final class Snapshot {
+
+        private final AdvisedSupport config = new AdvisedSupport();
+        private final ConcurrentMap<Method, List<Object>> chains = new ConcurrentHashMap<>();
+
+        private Snapshot(Advisor[] advisors, boolean preFiltered) {
+            config.setPreFiltered(preFiltered);
+            for (Advisor advisor : advisors) {
+                config.addAdvisor(advisor);
+            }
+        }
+    }
+
+    /**
+     * 넣어도 저장하지 않는 맵, AdvisedSupport 가 매번 이 팩토리에 체인을 물어보게 함
+     */
+    private static final class NoMethodCache extends AbstractMap<Object, List<Object>> {
+
+        private static final NoMethodCache INSTANCE = new NoMethodCache();
+
+        @Override
+        public List<Object> put(Object key, List<Object> value) {
+            return null;
+        }
+
+        @Override
+        public Set<Entry<Object, List<Object>>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+}
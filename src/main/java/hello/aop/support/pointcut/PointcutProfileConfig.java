@@ -0,0 +1,56 @@
+package hello.aop.support.pointcut;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * aop.pointcut-profile.enabled=true 이면 자동 프록시 생성기를 ProfilingAspectJAutoProxyCreator 로 바꾸고
+ * 컨텍스트 시작이 끝났을 때 포인트컷 표현식별 시간과 프록시가 만들어진 빈 수를 로그로 출력함
+ *
+ * (참고) 자동 프록시 생성기 빈 정의는 @EnableAspectJAutoProxy 가 설정 클래스를 읽는 시점에 등록함
+ *       그 다음에 실행되는 BeanDefinitionRegistryPostProcessor 에서 빈 클래스만 바꾸므로 proxyTargetClass 같은 설정은 그대로 유지됨
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "aop.pointcut-profile.enabled", havingValue = "true")
+public class PointcutProfileConfig {
+
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor profilingAutoProxyCreatorRegistrar() {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                if (registry.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+                    BeanDefinition definition = registry.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+                    definition.setBeanClassName(ProfilingAspectJAutoProxyCreator.class.getName());
+                }
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+
+    @Bean
+    public ApplicationListener<ContextRefreshedEvent> pointcutProfileReporter() {
+        return new ApplicationListener<ContextRefreshedEvent>() {
+            @Override
+            public void onApplicationEvent(ContextRefreshedEvent event) {
+                Object creator = event.getApplicationContext().getBean(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME);
+                if (creator instanceof ProfilingAspectJAutoProxyCreator) {
+                    log.info("{}", ((ProfilingAspectJAutoProxyCreator) creator).getReport());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package hello.aop.support.pointcut;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 컨텍스트 시작 중 포인트컷 표현식별로 쓴 시간과 프록시가 만들어진 빈 목록
+ * - classMatch : 빈 클래스마다 어드바이저를 적용할 수 있는지 평가 (AopUtils.findAdvisorsThatCanApply)
+ *   시간은 빈마다 전체 어드바이저를 평가한 시간으로만 기록하고, 표현식별로는 평가 수와 매칭 수를 기록함
+ * - methodMatch : 프록시를 만들 빈의 public 메서드마다 미리 매칭 (결과는 AspectJExpressionPointcut 의 캐시에 남음)
+ */
+public class PointcutProfileReport {
+
+    private final ConcurrentMap<String, ExpressionStats> stats = new ConcurrentHashMap<>();
+    private final Queue<String> proxiedBeans = new ConcurrentLinkedQueue<>();
+    private final LongAdder classMatchingNanos = new LongAdder();
+
+    void recordClassMatching(long nanos) {
+        classMatchingNanos.add(nanos);
+    }
+
+    void recordClassMatch(String expression, boolean matched) {
+        ExpressionStats s = statsOf(expression);
+        s.classEvaluations.increment();
+        if (matched) {
+            s.matchedClasses.increment();
+        }
+    }
+
+    void recordMethodMatch(String expression, long nanos, boolean matched) {
+        ExpressionStats s = statsOf(expression);
+        s.methodEvaluations.increment();
+        s.methodNanos.add(nanos);
+        if (matched) {
+            s.matchedMethods.increment();
+        }
+    }
+
+    void recordProxiedBean(String beanName) {
+        proxiedBeans.add(beanName);
+    }
+
+    public int getProxiedBeanCount() {
+        return proxiedBeans.size();
+    }
+
+    /**
+     * 모든 빈의 클래스 매칭에 쓴 시간(ns)
+     */
+    public long getClassMatchingNanos() {
+        return classMatchingNanos.sum();
+    }
+
+    public List<String> getProxiedBeans() {
+        return new ArrayList<>(proxiedBeans);
+    }
+
+    /**
+     * 메서드 매칭 시간이 큰 순서
+     */
+    public List<ExpressionStats> getExpressions() {
+        List<ExpressionStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparingLong(ExpressionStats::getMethodNanos).reversed());
+        return result;
+    }
+
+    public ExpressionStats getExpression(String expression) {
+        return stats.get(expression);
+    }
+
+    private ExpressionStats statsOf(String expression) {
+        ExpressionStats s = stats.get(expression);
+        if (s == null) {
+            s = stats.computeIfAbsent(expression, ExpressionStats::new);
+        }
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[pointcut-profile] proxiedBeans=").append(getProxiedBeanCount())
+                .append(' ').append(proxiedBeans)
+                .append(String.format("%n%8.3fms  class matching (all advisors)", getClassMatchingNanos() / 1_000_000.0));
+        for (ExpressionStats s : getExpressions()) {
+            sb.append('\n').append(s);
+        }
+        return sb.toString();
+    }
+
+    public static class ExpressionStats {
+
+        private final String expression;
+        private final LongAdder classEvaluations = new LongAdder();
+        private final LongAdder matchedClasses = new LongAdder();
+        private final LongAdder methodEvaluations = new LongAdder();
+        private final LongAdder methodNanos = new LongAdder();
+        private final LongAdder matchedMethods = new LongAdder();
+
+        ExpressionStats(String expression) {
+            this.expression = expression;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public long getClassEvaluations() {
+            return classEvaluations.sum();
+        }
+
+        public long getMatchedClasses() {
+            return matchedClasses.sum();
+        }
+
+        public long getMethodEvaluations() {
+            return methodEvaluations.sum();
+        }
+
+        public long getMatchedMethods() {
+            return matchedMethods.sum();
+        }
+
+        public long getMethodNanos() {
+            return methodNanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%8.3fms  classes=%d/%d methods=%d/%d  %s",
+                    getMethodNanos() / 1_000_000.0, getMatchedClasses(), getClassEvaluations(),
+                    getMatchedMethods(), getMethodEvaluations(), expression);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package hello.aop.support.pointcut;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 포인트컷 평가 시간을 재고 매칭 결과를 미리 계산하는 자동 프록시 생성기
+ * - 스프링 부트가 등록하는 AnnotationAwareAspectJAutoProxyCreator 를 대신함 (PointcutProfileConfig)
+ * - 클래스 매칭 : 부모의 findAdvisorsThatCanApply 를 한 번만 호출해서 전체 시간을 재고, 표현식별로는 매칭 여부만 기록함
+ *   (AopUtils 는 인트로덕션을 먼저 고르고 그 결과로 나머지를 평가하므로 어드바이저를 하나씩 나눠서 호출하지 않음)
+ * - 결과는 빈 클래스별로 캐시함 (같은 클래스의 빈이 여러 개거나 프로토타입이면 다시 평가하지 않음)
+ *   bean(..) 포인트컷이 있으면 같은 클래스라도 빈 이름에 따라 결과가 다르므로 (빈 클래스, 빈 이름) 으로 캐시함
+ * - 메서드 매칭 : 프록시를 만들기 전에 모든 public 메서드를 미리 매칭함
+ *   AspectJExpressionPointcut 이 메서드별 매칭 결과를 캐시하므로 첫 호출 때 표현식을 평가하지 않게 됨
+ */
+public class ProfilingAspectJAutoProxyCreator extends AnnotationAwareAspectJAutoProxyCreator {
+
+    private final PointcutProfileReport report = new PointcutProfileReport();
+    private final ConcurrentMap<CacheKey, EligibleAdvisors> eligibleAdvisorsCache = new ConcurrentHashMap<>();
+
+    public PointcutProfileReport getReport() {
+        return report;
+    }
+
+    @Override
+    protected List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> beanClass, String beanName) {
+        CacheKey key = new CacheKey(beanClass, usesBeanPointcut(candidateAdvisors) ? beanName : null);
+        EligibleAdvisors cached = eligibleAdvisorsCache.get(key);
+        if (cached != null && cached.candidates.equals(candidateAdvisors)) {
+            return new ArrayList<>(cached.eligible);
+        }
+
+        long start = System.nanoTime();
+        List<Advisor> eligible = super.findAdvisorsThatCanApply(candidateAdvisors, beanClass, beanName);
+        report.recordClassMatching(System.nanoTime() - start);
+        Set<Advisor> applied = Collections.newSetFromMap(new IdentityHashMap<>());
+        applied.addAll(eligible);
+        for (Advisor advisor : candidateAdvisors) {
+            report.recordClassMatch(expressionOf(advisor), applied.contains(advisor));
+        }
+        eligibleAdvisorsCache.put(key, new EligibleAdvisors(new ArrayList<>(candidateAdvisors), new ArrayList<>(eligible)));
+        return eligible;
+    }
+
+    private static boolean usesBeanPointcut(List<Advisor> candidateAdvisors) {
+        for (Advisor advisor : candidateAdvisors) {
+            if (expressionOf(advisor).contains("bean(")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Object createProxy(Class<?> beanClass, String beanName, Object[] specificInterceptors, TargetSource targetSource) {
+        report.recordProxiedBean(beanName != null ? beanName : beanClass.getName());
+        if (specificInterceptors != null) {
+            for (Object interceptor : specificInterceptors) {
+                if (interceptor instanceof PointcutAdvisor) {
+                    precomputeMethodMatches((PointcutAdvisor) interceptor, beanClass);
+                }
+            }
+        }
+        return super.createProxy(beanClass, beanName, specificInterceptors, targetSource);
+    }
+
+    private void precomputeMethodMatches(PointcutAdvisor advisor, Class<?> beanClass) {
+        String expression = expressionOf(advisor);
+        MethodMatcher methodMatcher = advisor.getPointcut().getMethodMatcher();
+        for (Method method : beanClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean matched = methodMatcher.matches(method, beanClass);
+            report.recordMethodMatch(expression, System.nanoTime() - start, matched);
+        }
+    }
+
+    private static String expressionOf(Advisor advisor) {
+        if (advisor instanceof PointcutAdvisor) {
+            Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+            if (pointcut instanceof AspectJExpressionPointcut) {
+                return ((AspectJExpressionPointcut) pointcut).getExpression();
+            }
+        }
+        return advisor.getClass().getSimpleName();
+    }
+
+    private static final class CacheKey {
+        private final Class<?> beanClass;
+        private final String beanName;
+
+        CacheKey(Class<?> beanClass, String beanName) {
+            this.beanClass = beanClass;
+            this.beanName = beanName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return beanClass == other.beanClass && Objects.equals(beanName, other.beanName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * beanClass.hashCode() + Objects.hashCode(beanName);
+        }
+    }
+
+    private static class EligibleAdvisors {
+        private final List<Advisor> candidates;
+        private final List<Advisor> eligible;
+
+        EligibleAdvisors(List<Advisor> candidates, List<Advisor> eligible) {
+            this.candidates = candidates;
+            this.eligible = eligible;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hello.aop.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JDK 버전별로 다른 스레드 관련 기능 (JDK 11 빌드)
+ * - JDK 11 로 컴파일하므로 가상 스레드 API 는 실행 중인 JDK 에서 찾아서 호출함
+ *   JDK 21 이상에서 실행하면 가상 스레드를 그대로 사용하고, 그보다 낮은 JDK 에서는 isVirtual 은 항상 false,
+ *   가상 스레드를 만드는 메서드는 UnsupportedOperationException
+ * - isVirtual 은 트레이스, 마감 시각이 끝날 때마다 호출되므로 클래스를 로딩할 때 찾아 둔 MethodHandle 을 invokeExact 로 호출함
+ *   가상 스레드를 만드는 메서드는 한 번씩만 호출되므로 리플렉션을 사용함
+ * - JDK 21 빌드(-PjavaVersion=21)는 src/main/java21 의 같은 클래스를 사용함
+ */
+public final class ThreadSupport {
+
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private ThreadSupport() {
+    }
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot call Thread.isVirtual", e);
+        }
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return IS_VIRTUAL != null;
+    }
+
+    /**
+     * Thread.ofVirtual().name("virtual-", 0).factory()
+     */
+    public static ThreadFactory virtualThreadFactory() {
+        checkSupported();
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual").getMethod("name", String.class, long.class)
+                    .invoke(builder, "virtual-", 0L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("cannot create a virtual thread factory", e);
+        }
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        checkSupported();
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("cannot create a virtual thread executor", e);
+        }
+    }
+
+    private static void checkSupported() {
+        if (IS_VIRTUAL == null) {
+            throw new UnsupportedOperationException("virtual threads require JDK 21 or later (running on "
+                    + System.getProperty("java.version") + ")");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package hello.aop.support;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JDK 버전별로 다른 스레드 관련 기능 (JDK 21 빌드)
+ * - 가상 스레드 API 를 그대로 사용함
+ * - JDK 11 빌드는 src/main/java11 의 같은 클래스를 사용함
+ */
+public final class ThreadSupport {
+
+    private ThreadSupport() {
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        return thread.isVirtual();
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return true;
+    }
+
+    public static ThreadFactory virtualThreadFactory() {
+        return Thread.ofVirtual().name("virtual-", 0).factory();
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,147 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.exam.aop.BulkheadAspect;
+import hello.aop.exam.aop.BulkheadFullException;
+import hello.aop.exam.aop.BulkheadLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 동시 실행 수를 넘는 호출은 대기열에서 기다리거나 바로 거절되고, 적응형 한도는 지연 시간에 따라 줄었다 늘어남
+ */
+@Slf4j
+@SpringBootTest
+@Import({BulkheadAspect.class, BulkheadTest.BlockingService.class})
+public class BulkheadTest {
+
+    @Autowired
+    BlockingService blockingService;
+
+    @Autowired
+    BulkheadAspect bulkheadAspect;
+
+    @Test
+    void rejectsWhenFull() throws Exception {
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> blockingService.noQueue(entered, release));
+            Future<?> second = executor.submit(() -> blockingService.noQueue(entered, release));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> blockingService.noQueue(new CountDownLatch(1), release))
+                    .isInstanceOf(BulkheadFullException.class);
+
+            release.countDown();
+            first.get();
+            second.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        BulkheadLimiter limiter = bulkheadAspect.getLimiter(BlockingService.class.getMethod("noQueue", CountDownLatch.class, CountDownLatch.class));
+        log.info("limiter={}", limiter);
+        assertThat(limiter.getAccepted()).isEqualTo(2);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * 한도 1, 대기열 1 : 두 번째 호출은 기다렸다가 실행되고, 세 번째 호출은 대기열이 차서 거절됨
+     */
+    @Test
+    void waitsInQueue() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BulkheadLimiter limiter;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> blockingService.queued(entered, release));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            limiter = bulkheadAspect.getLimiter(BlockingService.class.getMethod("queued", CountDownLatch.class, CountDownLatch.class));
+
+            Future<?> second = executor.submit(() -> blockingService.queued(new CountDownLatch(1), release));
+            while (limiter.getWaiting() == 0) {
+                Thread.onSpinWait();
+            }
+            assertThatThrownBy(() -> blockingService.queued(new CountDownLatch(1), release))
+                    .isInstanceOf(BulkheadFullException.class);
+
+            release.countDown();
+            first.get();
+            second.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("limiter={}", limiter);
+        assertThat(limiter.getAccepted()).isEqualTo(2);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * 목표 지연 시간을 넘기면 0.9 배로 줄고, 목표 안에 끝나는 호출이 이어지면 상한까지 다시 늘어남
+     */
+    @Test
+    void adaptiveLimit() {
+        long target = TimeUnit.MICROSECONDS.toNanos(100);
+        BulkheadLimiter limiter = new BulkheadLimiter(2, 10, 0, 0, target);
+
+        acquireAndRelease(limiter, target * 10);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            LockSupport.parkNanos(target * 2);
+            acquireAndRelease(limiter, target * 10);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 100; i++) {
+            acquireAndRelease(limiter, target / 2);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        log.info("limiter={}", limiter);
+    }
+
+    private static void acquireAndRelease(BulkheadLimiter limiter, long latencyNanos) {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(latencyNanos);
+    }
+
+    static class BlockingService {
+
+        @Bulkhead(maxConcurrent = 2)
+        public void noQueue(CountDownLatch entered, CountDownLatch release) {
+            block(entered, release);
+        }
+
+        @Bulkhead(maxConcurrent = 1, queueSize = 1, maxWaitMillis = 5_000)
+        public void queued(CountDownLatch entered, CountDownLatch release) {
+            block(entered, release);
+        }
+
+        private void block(CountDownLatch entered, CountDownLatch release) {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
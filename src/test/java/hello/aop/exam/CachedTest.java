@@ -0,0 +1,200 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Cached;
+import hello.aop.exam.aop.CachedAspect;
+import hello.aop.exam.aop.LruCache;
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 같은 인자로 다시 호출하면 대상을 호출하지 않고, 크기와 TTL 을 넘은 결과는 버림
+ */
+@Slf4j
+@SpringBootTest
+@Import({CachedAspect.class, CachedTest.CountingService.class})
+public class CachedTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    CountingService countingService;
+
+    @Autowired
+    CachedAspect cachedAspect;
+
+    @Test
+    void memberServiceHello() throws NoSuchMethodException {
+        for (int i = 0; i < 10; i++) {
+            assertThat(memberService.hello("cached")).isEqualTo("ok");
+        }
+        LruCache cache = cachedAspect.getCache(MemberServiceImpl.class.getMethod("hello", String.class));
+        log.info("cache={}", cache);
+        assertThat(cache.getHits()).isGreaterThanOrEqualTo(9);
+    }
+
+    @Test
+    void sameArgumentsHitCache() {
+        int before = countingService.getCalls();
+        assertThat(countingService.square(3, "a")).isEqualTo(9);
+        assertThat(countingService.square(3, "b")).isEqualTo(9);
+        assertThat(countingService.square(4, "a")).isEqualTo(16);
+        assertThat(countingService.getCalls() - before).isEqualTo(2);
+    }
+
+    @Test
+    void nullResultIsCached() {
+        int before = countingService.getCalls();
+        assertThat(countingService.nothing("x")).isNull();
+        assertThat(countingService.nothing("x")).isNull();
+        assertThat(countingService.getCalls() - before).isEqualTo(1);
+    }
+
+    /**
+     * 힙 밖에 저장한 결과는 꺼낼 때마다 새 배열로 만들어지므로 호출자가 바꿔도 캐시는 그대로임
+     */
+    @Test
+    void offHeapValue() {
+        byte[] first = countingService.payload(1024);
+        first[0] = 42;
+        byte[] second = countingService.payload(1024);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second[0]).isZero();
+        assertThat(second).hasSize(1024);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        LruCache cache = new LruCache(1, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    /**
+     * 세그먼트 수와 관계없이 전체 크기는 maximumSize 를 넘지 않음
+     */
+    @Test
+    void sizeIsBounded() {
+        LruCache cache = new LruCache(100, 0);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.getEvictions()).isEqualTo(10_000 - cache.size());
+    }
+
+    /**
+     * 실패한 future 는 기억하지 않고, 정상 완료된 future 의 값만 기억함
+     */
+    @Test
+    void onlySuccessfulFutureIsCached() {
+        int before = countingService.getCalls();
+        countingService.failNext();
+        assertThatThrownBy(() -> countingService.load("async").join()).hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(countingService.load("async").join()).isEqualTo("loaded-async");
+        CompletableFuture<String> cached = countingService.load("async");
+        assertThat(cached).isCompletedWithValue("loaded-async");
+        assertThat(countingService.getCalls() - before).isEqualTo(2);
+    }
+
+    /**
+     * 아직 완료되지 않은 future 는 기억하지 않으므로 완료 전에 들어온 호출은 대상을 다시 호출함
+     */
+    @Test
+    void pendingFutureIsNotCached() {
+        int before = countingService.getCalls();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        countingService.setPending(pending);
+        assertThat(countingService.loadLater("later")).isSameAs(pending);
+        assertThat(countingService.loadLater("later")).isSameAs(pending);
+        assertThat(countingService.getCalls() - before).isEqualTo(2);
+
+        pending.complete("done");
+        assertThat(countingService.loadLater("later")).isCompletedWithValue("done");
+        assertThat(countingService.getCalls() - before).isEqualTo(2);
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        AtomicLong clock = new AtomicLong();
+        LruCache cache = new LruCache(10, 100, clock::get);
+        cache.put("a", 1);
+        clock.addAndGet(99);
+        assertThat(cache.get("a")).isEqualTo(1);
+        clock.addAndGet(1);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getExpirations()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    static class CountingService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean failNext;
+        private volatile CompletableFuture<String> pending;
+
+        public int getCalls() {
+            return calls.get();
+        }
+
+        @Cached(keyArgs = 0)
+        public int square(int value, String requestId) {
+            calls.incrementAndGet();
+            return value * value;
+        }
+
+        @Cached
+        public String nothing(String id) {
+            calls.incrementAndGet();
+            return null;
+        }
+
+        public void setPending(CompletableFuture<String> pending) {
+            this.pending = pending;
+        }
+
+        public void failNext() {
+            failNext = true;
+        }
+
+        @Cached
+        public CompletableFuture<String> load(String id) {
+            calls.incrementAndGet();
+            if (failNext) {
+                failNext = false;
+                return CompletableFuture.failedFuture(new IllegalStateException("실패 id=" + id));
+            }
+            return CompletableFuture.completedFuture("loaded-" + id);
+        }
+
+        @Cached
+        public CompletableFuture<String> loadLater(String id) {
+            calls.incrementAndGet();
+            return pending;
+        }
+
+        @Cached(offHeapMinBytes = 512)
+        public byte[] payload(int size) {
+            calls.incrementAndGet();
+            return new byte[size];
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package hello.aop.exam;
+
+import hello.aop.exam.aop.CircuitBreakerAspect;
+import hello.aop.exam.aop.CircuitBreakerOpenException;
+import hello.aop.exam.aop.CircuitBreakerState;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.fault.FaultInjector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ExamRepository 가 처음 10번의 호출에 모두 실패하도록 설정함 (BURST, 1000번마다 처음 10번 실패)
+ * - @Retry(value = 4) 는 시도마다 브레이커를 지나가므로 10번째 실패한 시도에서 브레이커가 열림
+ * - 열린 동안에는 재시도 없이 바로 CircuitBreakerOpenException 이 발생하고 ExamRepository 는 호출되지 않음
+ * - openMillis(500ms) 가 지나면 시험 호출 3번이 성공해서 다시 닫힘
+ */
+@Slf4j
+@SpringBootTest(properties = {"exam.fault.pattern=BURST", "exam.fault.burst-length=10", "exam.fault.burst-period=1000"})
+@Import({RetryAspect.class, CircuitBreakerAspect.class})
+public class CircuitBreakerTest {
+
+    @Autowired
+    ExamRepository examRepository;
+
+    @Autowired
+    CircuitBreakerAspect circuitBreakerAspect;
+
+    @Autowired
+    FaultInjector examFaultInjector;
+
+    /**
+     * 컴파일 타임 위빙에서는 애스펙트가 JVM 에 하나이므로 다른 테스트의 기록이 섞이거나 열린 상태가 남지 않도록 비워 둠
+     */
+    @BeforeEach
+    @AfterEach
+    void resetBreaker() throws NoSuchMethodException {
+        CircuitBreakerState state = circuitBreakerAspect.getState(ExamRepository.class.getMethod("save", String.class));
+        if (state != null) {
+            state.reset();
+        }
+    }
+
+    @Test
+    void examRepositoryFailsFastWhileOpen() throws Exception {
+        Throwable last = null;
+        for (int i = 0; i < 10 && !(last instanceof CircuitBreakerOpenException); i++) {
+            int request = i;
+            last = catchThrowable(() -> examRepository.save("data" + request));
+        }
+        CircuitBreakerState state = circuitBreakerAspect.getState(ExamRepository.class.getMethod("save", String.class));
+        log.info("state={}, faultInjector={}", state, examFaultInjector);
+        assertThat(last).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.OPEN);
+        assertThat(examFaultInjector.getCalls()).isEqualTo(10);
+
+        long notPermittedBefore = state.getNotPermitted();
+        for (int i = 0; i < 100; i++) {
+            assertThatThrownBy(() -> examRepository.save("open")).isInstanceOf(CircuitBreakerOpenException.class);
+        }
+        assertThat(examFaultInjector.getCalls()).isEqualTo(10);
+        assertThat(state.getNotPermitted() - notPermittedBefore).isEqualTo(100);
+
+        Thread.sleep(600);
+        for (int i = 0; i < 3; i++) {
+            assertThat(examRepository.save("recovered" + i)).isEqualTo("ok");
+        }
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.CLOSED);
+        assertThat(examFaultInjector.getCalls()).isEqualTo(13);
+    }
+
+    @Test
+    void opensAtThresholdAfterMinimumCalls() {
+        CircuitBreakerState state = new CircuitBreakerState(10, 5, 0.5, 1_000, 1);
+        for (int i = 0; i < 4; i++) {
+            state.onFailure(state.tryAcquire());
+        }
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.CLOSED);
+
+        state.onFailure(state.tryAcquire());
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.OPEN);
+        assertThat(state.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+    }
+
+    /**
+     * 윈도우는 최근 windowSize 개만 기억하므로 오래된 실패는 밀려남
+     */
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        CircuitBreakerState state = new CircuitBreakerState(10, 10, 0.5, 1_000, 1);
+        for (int i = 0; i < 4; i++) {
+            state.onFailure(state.tryAcquire());
+        }
+        for (int i = 0; i < 100; i++) {
+            state.onSuccess(state.tryAcquire());
+        }
+        assertThat(state.getWindowCalls()).isEqualTo(10);
+        assertThat(state.getWindowFailures()).isZero();
+
+        for (int i = 0; i < 4; i++) {
+            state.onFailure(state.tryAcquire());
+        }
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.CLOSED);
+        state.onFailure(state.tryAcquire());
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.OPEN);
+    }
+
+    /**
+     * 반 열림 상태에서는 halfOpenCalls 개만 허용하고, 하나라도 실패하면 다시 열림
+     * 다시 열린 뒤 도착한 이전 세대 시험 호출의 성공은 무시함
+     */
+    @Test
+    void halfOpenFailureReopens() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreakerState state = new CircuitBreakerState(4, 4, 1.0, 100, 2, clock::get);
+        for (int i = 0; i < 4; i++) {
+            state.onFailure(state.tryAcquire());
+        }
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.OPEN);
+
+        clock.addAndGet(100);
+        long first = state.tryAcquire();
+        long second = state.tryAcquire();
+        assertThat(first).isNotEqualTo(CircuitBreakerState.REJECTED);
+        assertThat(second).isNotEqualTo(CircuitBreakerState.REJECTED);
+        assertThat(state.tryAcquire()).isEqualTo(CircuitBreakerState.REJECTED);
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.HALF_OPEN);
+
+        state.onFailure(first);
+        state.onSuccess(second);
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.OPEN);
+        assertThat(state.getOpened()).isEqualTo(2);
+
+        clock.addAndGet(100);
+        state.onSuccess(state.tryAcquire());
+        state.onSuccess(state.tryAcquire());
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.CLOSED);
+        assertThat(state.getWindowCalls()).isZero();
+    }
+
+    /**
+     * 여러 스레드가 동시에 결과를 기록해도 윈도우의 호출 수는 windowSize 를 넘지 않고 실패율 아래에서는 닫혀 있음
+     */
+    @Test
+    void concurrentRecording() throws Exception {
+        CircuitBreakerState state = new CircuitBreakerState(100, 100, 0.5, 1_000_000_000L, 3);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        long permit = state.tryAcquire();
+                        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                            state.onFailure(permit);
+                        } else {
+                            state.onSuccess(permit);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("state={}", state);
+        assertThat(state.getStatus()).isEqualTo(CircuitBreakerState.Status.CLOSED);
+        assertThat(state.getWindowCalls()).isEqualTo(100);
+        assertThat(state.getWindowFailures()).isBetween(0, 50);
+    }
+}
@@ -0,0 +1,259 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Coalesce;
+import hello.aop.exam.annotation.KeyExtractor;
+import hello.aop.exam.aop.CoalesceAspect;
+import hello.aop.exam.aop.SingleFlight;
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.support.Self;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * 리더가 대상을 호출하는 동안 같은 키로 들어온 호출은 기다렸다가 같은 결과(예외)를 받음
+ * - SlowService 는 release() 로 래치를 열 때까지 끝나지 않으므로 모든 호출이 진행 중인 리더와 겹침
+ */
+@Slf4j
+@SpringBootTest
+@Import({CoalesceAspect.class, CoalesceTest.SlowService.class})
+public class CoalesceTest {
+
+    static final int CALLERS = 8;
+
+    @Autowired
+    SlowService slowService;
+
+    @Autowired
+    CoalesceAspect coalesceAspect;
+
+    @Autowired
+    MemberService memberService;
+
+    @Test
+    void concurrentCallsShareOneInvocation() throws Exception {
+        Method load = SlowService.class.getMethod("load", String.class);
+        List<Object> results = callConcurrently(load, () -> slowService.load("a"));
+        assertThat(slowService.getCalls()).isEqualTo(1);
+        assertThat(results).hasSize(CALLERS).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+
+        SingleFlight singleFlight = coalesceAspect.getSingleFlight(load);
+        log.info("singleFlight={}", singleFlight);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void exceptionFansOut() throws Exception {
+        List<Object> results = callConcurrently(SlowService.class.getMethod("fail", String.class), () -> slowService.fail("a"));
+        assertThat(slowService.getCalls()).isEqualTo(1);
+        assertThat(results).hasSize(CALLERS).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+        assertThat(results.get(0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * keyArgs = 0 : 두 번째 인자가 달라도 첫 번째 인자가 같으면 합침
+     */
+    @Test
+    void keyArgs() throws Exception {
+        AtomicInteger requestedAt = new AtomicInteger();
+        callConcurrently(SlowService.class.getMethod("find", String.class, long.class),
+                () -> slowService.find("a", requestedAt.incrementAndGet()));
+        assertThat(slowService.getCalls()).isEqualTo(1);
+    }
+
+    /**
+     * 키 추출기가 대소문자를 무시한 키를 만들면 "A" 와 "a" 도 합침
+     */
+    @Test
+    void keyExtractor() throws Exception {
+        AtomicInteger caller = new AtomicInteger();
+        callConcurrently(SlowService.class.getMethod("findIgnoreCase", String.class),
+                () -> slowService.findIgnoreCase(caller.incrementAndGet() % 2 == 0 ? "A" : "a"));
+        assertThat(slowService.getCalls()).isEqualTo(1);
+    }
+
+    /**
+     * 키가 다르면 합치지 않음 (모든 호출이 대상에 들어간 뒤에 래치를 엶)
+     */
+    @Test
+    void differentKeysAreNotCoalesced() throws Exception {
+        slowService.reset(CALLERS);
+        AtomicInteger caller = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> slowService.load("key" + caller.incrementAndGet())));
+            }
+            assertThat(slowService.awaitEntered()).isTrue();
+            slowService.release();
+            for (Future<String> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(slowService.getCalls()).isEqualTo(CALLERS);
+    }
+
+    /**
+     * 리더가 같은 스레드에서 같은 키로 다시 들어오면 자기 결과를 기다리지 않고 대상을 호출함
+     */
+    @Test
+    void reentrantCallIsNotCoalesced() throws Exception {
+        slowService.reset(0);
+        Method nested = SlowService.class.getMethod("nested", String.class, int.class);
+        SingleFlight before = coalesceAspect.getSingleFlight(nested);
+        long coalescedBefore = before == null ? 0 : before.getCoalesced();
+
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> slowService.nested("a", 2));
+        assertThat(result).isEqualTo("nested-a");
+        assertThat(slowService.getCalls()).isEqualTo(3);
+
+        SingleFlight singleFlight = coalesceAspect.getSingleFlight(nested);
+        assertThat(singleFlight.getCoalesced()).isEqualTo(coalescedBefore);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void memberServiceHello() throws NoSuchMethodException {
+        assertThat(memberService.hello("param")).isEqualTo("ok");
+        SingleFlight singleFlight = coalesceAspect.getSingleFlight(MemberServiceImpl.class.getMethod("hello", String.class));
+        assertThat(singleFlight.getInvocations()).isGreaterThanOrEqualTo(1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    /**
+     * 리더가 대상에 들어가고 나머지 호출자가 모두 리더를 기다리기 시작하면 래치를 열고, 호출자별 결과나 예외를 모아서 반환함
+     */
+    private List<Object> callConcurrently(Method method, Callable<Object> call) throws Exception {
+        slowService.reset(1);
+        SingleFlight before = coalesceAspect.getSingleFlight(method);
+        long coalescedBefore = before == null ? 0 : before.getCoalesced();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return call.call();
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            assertThat(slowService.awaitEntered()).isTrue();
+            SingleFlight singleFlight = coalesceAspect.getSingleFlight(method);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.getCoalesced() - coalescedBefore < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(singleFlight.getCoalesced() - coalescedBefore).isEqualTo(CALLERS - 1);
+            slowService.release();
+
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static class SlowService {
+
+        @Self
+        private SlowService self;
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch entered = new CountDownLatch(0);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Coalesce
+        public String load(String id) {
+            block();
+            return "loaded-" + id;
+        }
+
+        @Coalesce
+        public String fail(String id) {
+            block();
+            throw new IllegalStateException("실패 id=" + id);
+        }
+
+        @Coalesce(keyArgs = 0)
+        public String find(String id, long requestedAt) {
+            block();
+            return "found-" + id;
+        }
+
+        @Coalesce(keyExtractor = IgnoreCaseKey.class)
+        public String findIgnoreCase(String id) {
+            block();
+            return "found-" + id;
+        }
+
+        /**
+         * depth 가 0 이 될 때까지 프록시를 거쳐 같은 키(id)로 다시 호출함
+         */
+        @Coalesce(keyArgs = 0)
+        public String nested(String id, int depth) {
+            calls.incrementAndGet();
+            return depth == 0 ? "nested-" + id : self.nested(id, depth - 1);
+        }
+
+        private void block() {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void reset(int callers) {
+            calls.set(0);
+            entered = new CountDownLatch(callers);
+            release = new CountDownLatch(1);
+        }
+
+        public boolean awaitEntered() throws InterruptedException {
+            return entered.await(5, TimeUnit.SECONDS);
+        }
+
+        public void release() {
+            release.countDown();
+        }
+
+        public int getCalls() {
+            return calls.get();
+        }
+    }
+
+    public static class IgnoreCaseKey implements KeyExtractor {
+        @Override
+        public Object extract(Object[] args) {
+            return ((String) args[0]).toLowerCase();
+        }
+    }
+}
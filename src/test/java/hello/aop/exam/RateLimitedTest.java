@@ -0,0 +1,112 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.RateLimited;
+import hello.aop.exam.aop.RateLimitExceededException;
+import hello.aop.exam.aop.RateLimitedAspect;
+import hello.aop.exam.aop.RateLimiter;
+import hello.aop.order.OrderBatchResult;
+import hello.aop.order.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 스프링 프록시로 적용한 @RateLimited 가 메서드, 키(인자), 배치 크기별로 한도를 적용함 (RateLimiter 자체는 RateLimiterTest)
+ * - RateLimitedAspect 는 aop-ajc.xml 에 없으므로 컴파일 타임 위빙(spring.aop.auto=false)에서는 실행하지 않음
+ */
+@Slf4j
+@DisabledIfSystemProperty(named = "spring.aop.auto", matches = "false")
+@SpringBootTest
+@Import({RateLimitedAspect.class, RateLimitedTest.LimitedService.class})
+public class RateLimitedTest {
+
+    @Autowired
+    LimitedService limitedService;
+
+    @Autowired
+    RateLimitedAspect rateLimitedAspect;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    void perMethod() throws Exception {
+        limitedService.perMethod("a");
+        assertThatThrownBy(() -> limitedService.perMethod("b"))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        RateLimiter limiter = rateLimitedAspect.getLimiter(LimitedService.class.getMethod("perMethod", String.class));
+        log.info("limiter={}", limiter);
+        assertThat(limiter.getPermitted()).isEqualTo(1);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getKeys()).isZero();
+    }
+
+    @Test
+    void perItem() throws Exception {
+        limitedService.perItem("itemA", 1);
+        limitedService.perItem("itemA", 2);
+        assertThatThrownBy(() -> limitedService.perItem("itemA", 3))
+                .isInstanceOf(RateLimitExceededException.class);
+        limitedService.perItem("itemB", 1);
+
+        RateLimiter limiter = rateLimitedAspect.getLimiter(LimitedService.class.getMethod("perItem", String.class, int.class));
+        assertThat(limiter.getPermitted()).isEqualTo(3);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getKeys()).isEqualTo(2);
+    }
+
+    /**
+     * permitsArg = 0 : 목록의 크기만큼 한도를 가져감
+     */
+    @Test
+    void batchTakesPermitsPerItem() throws Exception {
+        limitedService.batch(List.of("a", "b"));
+        assertThatThrownBy(() -> limitedService.batch(List.of("c", "d", "e", "f")))
+                .isInstanceOf(RateLimitExceededException.class);
+        limitedService.batch(List.of("c"));
+        assertThatThrownBy(() -> limitedService.batch(List.of("d")))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        RateLimiter limiter = rateLimitedAspect.getLimiter(LimitedService.class.getMethod("batch", List.class));
+        assertThat(limiter.getPermitted()).isEqualTo(2);
+        assertThat(limiter.getRejected()).isEqualTo(2);
+    }
+
+    /**
+     * OrderService.orderItems 는 1000건이 넘는 배치도 한 번에 받음
+     */
+    @Test
+    void largeOrderBatch() throws Exception {
+        OrderBatchResult result = orderService.orderItems(Collections.nCopies(1500, "largeBatch"));
+        assertThat(result.getSuccessCount()).isEqualTo(1500);
+
+        RateLimiter limiter = rateLimitedAspect.getLimiter(OrderService.class.getMethod("orderItems", Collection.class));
+        assertThat(limiter.getPermitted()).isEqualTo(1);
+        assertThat(limiter.getRejected()).isZero();
+    }
+
+    static class LimitedService {
+
+        @RateLimited(permitsPerSecond = 0.1)
+        public void perMethod(String itemId) {
+        }
+
+        @RateLimited(permitsPerSecond = 0.1, burst = 2, keyArgs = 0)
+        public void perItem(String itemId, int count) {
+        }
+
+        @RateLimited(permitsPerSecond = 0.1, burst = 3, permitsArg = 0)
+        public void batch(List<String> itemIds) {
+        }
+    }
+}
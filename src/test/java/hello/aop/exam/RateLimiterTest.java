@@ -0,0 +1,178 @@
+package hello.aop.exam;
+
+import hello.aop.exam.aop.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 한도(burst)까지는 바로 허용하고 넘친 호출은 거절하며, 한도는 시간이 지나면 다시 차고 키마다 따로 셈
+ * 오래 쓰이지 않은 키는 지우고, 키 수가 maxKeys 에 이르면 새 키는 공용 한도를 나눠 씀
+ * 여러 개를 한꺼번에 가져갈 수 있고, burst 보다 많이 가져가려는 호출은 거절함
+ */
+class RateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long IDLE = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 초당 10건(100ms 마다 하나), burst 5
+     */
+    @Test
+    void burstThenRefill() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 5, IDLE, 100, clock::get);
+
+        assertThat(acquire(limiter, 10)).isEqualTo(5);
+
+        clock.addAndGet(INTERVAL);
+        assertThat(acquire(limiter, 10)).isEqualTo(1);
+
+        // 오래 쉬어도 burst 보다 많이 쌓이지 않음
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(acquire(limiter, 10)).isEqualTo(5);
+        assertThat(limiter.getPermitted()).isEqualTo(11);
+        assertThat(limiter.getRejected()).isEqualTo(19);
+    }
+
+    @Test
+    void keysAreIndependent() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 2, IDLE, 100, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsIdleKeys() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 2, IDLE, 100, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // a 는 200ms, b 는 100ms 가 지나야 가득 참
+        clock.set(IDLE + INTERVAL);
+        limiter.sweep();
+        assertThat(limiter.getKeys()).isEqualTo(1);
+        assertThat(limiter.getEvicted()).isEqualTo(1);
+
+        clock.set(IDLE + 2 * INTERVAL);
+        limiter.sweep();
+        assertThat(limiter.getKeys()).isZero();
+        assertThat(limiter.getEvicted()).isEqualTo(2);
+
+        // 지운 키는 가득 찬 새 버킷으로 다시 시작함
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+    }
+
+    /**
+     * maxKeys 를 넘은 새 키는 버킷을 만들지 않고 하나의 공용 버킷(burst 2)을 나눠 씀
+     */
+    @Test
+    void overflowKeysShareFallbackBucket() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 2, IDLE, 2, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+        assertThat(limiter.tryAcquire("c")).isTrue();
+        assertThat(limiter.tryAcquire("d")).isTrue();
+        assertThat(limiter.tryAcquire("e")).isFalse();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.getKeys()).isEqualTo(2);
+        assertThat(limiter.getOverflowed()).isEqualTo(3);
+
+        clock.addAndGet(INTERVAL);
+        assertThat(limiter.tryAcquire("e")).isTrue();
+    }
+
+    /**
+     * 초당 10건, burst 5 에서 여러 개를 한꺼번에 가져감, burst 보다 많이 가져가려는 호출은 가득 차 있어도 거절함
+     */
+    @Test
+    void acquireManyPermits() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 5, IDLE, 100, clock::get);
+
+        assertThat(limiter.tryAcquire(6)).isFalse();
+        assertThat(limiter.tryAcquire(3)).isTrue();
+        assertThat(limiter.tryAcquire(3)).isFalse();
+        assertThat(limiter.tryAcquire(2)).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        clock.addAndGet(5 * INTERVAL);
+        assertThat(limiter.tryAcquire("a", 5)).isTrue();
+        assertThat(limiter.tryAcquire("a", 1)).isFalse();
+        assertThat(limiter.tryAcquire(5)).isTrue();
+        assertThat(limiter.getPermitted()).isEqualTo(4);
+        assertThat(limiter.getRejected()).isEqualTo(4);
+    }
+
+    /**
+     * 시계가 멈춘 상태에서 여러 스레드가 동시에 받아도 정확히 burst 개만 허용됨
+     */
+    @Test
+    void concurrentAcquireNeverExceedsBurst() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 500, IDLE, 100, clock::get);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return acquire(limiter, 1000) + acquireKeyed(limiter, "shared", 1000);
+                }));
+            }
+            start.countDown();
+            int permitted = 0;
+            for (Future<Integer> result : results) {
+                permitted += result.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(permitted).isEqualTo(1000);
+            assertThat(limiter.getPermitted()).isEqualTo(1000);
+            assertThat(limiter.getRejected()).isEqualTo(threads * 2000L - 1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int acquire(RateLimiter limiter, int attempts) {
+        int permitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire()) {
+                permitted++;
+            }
+        }
+        return permitted;
+    }
+
+    private static int acquireKeyed(RateLimiter limiter, Object key, int attempts) {
+        int permitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(key)) {
+                permitted++;
+            }
+        }
+        return permitted;
+    }
+}
@@ -0,0 +1,241 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.RetryBudget;
+import hello.aop.exam.fault.FaultInjector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 재시도 예산이 재시도로 인한 부하 증폭을 제한하는지 확인함
+ * - 호출 수 = 요청 수 + 재시도 수
+ * - 재시도 수 <= budgetReserve + budgetRatio * 요청 수
+ */
+@Slf4j
+@SpringBootTest
+@Import({RetryAspect.class, RetryTest.AlwaysFailService.class, RetryTest.AsyncService.class})
+public class RetryTest {
+
+    @Autowired
+    ExamRepository examRepository;
+
+    @Autowired
+    AlwaysFailService alwaysFailService;
+
+    @Autowired
+    AsyncService asyncService;
+
+    @Autowired
+    RetryAspect retryAspect;
+
+    @Autowired
+    FaultInjector examFaultInjector;
+
+    /**
+     * ExamRepository 는 5번에 1번 실패하므로 재시도 비율은 약 25% 이고, budgetRatio(30%) 안에서 모두 성공함
+     */
+    @Test
+    void examRepositoryAmplificationIsBounded() throws NoSuchMethodException {
+        Method save = ExamRepository.class.getMethod("save", String.class);
+        examRepository.save("warmup");
+        RetryBudget budget = retryAspect.getBudget(save);
+        long requestsBefore = budget.getRequests();
+        long retriesBefore = budget.getRetries();
+
+        int requests = 1000;
+        for (int i = 0; i < requests; i++) {
+            assertThat(examRepository.save("data" + i)).isEqualTo("ok");
+        }
+
+        log.info("budget={}", budget);
+        long retries = budget.getRetries() - retriesBefore;
+        assertThat(budget.getRequests() - requestsBefore).isEqualTo(requests);
+        assertThat(retries).isLessThanOrEqualTo((long) (10 + 0.3 * requests));
+        double amplification = (double) (requests + retries) / requests;
+        assertThat(amplification).isLessThanOrEqualTo(1.3 + 10.0 / requests);
+    }
+
+    /**
+     * 여러 스레드에서 동시에 호출해도 모든 요청이 성공하고, 실패한 시도마다 정확히 한 번씩 재시도함
+     * - 재시도 수 = 장애 주입기가 실패시킨 수
+     * - 요청 수, 재시도 수를 잃어버리지 않음 (RetryBudget, FaultInjector 의 카운터)
+     */
+    @Test
+    void concurrentRequests() throws Exception {
+        Method save = ExamRepository.class.getMethod("save", String.class);
+        examRepository.save("warmup");
+        RetryBudget budget = retryAspect.getBudget(save);
+        long requestsBefore = budget.getRequests();
+        long retriesBefore = budget.getRetries();
+        long faultsBefore = examFaultInjector.getFaults();
+
+        int threads = 8;
+        int requestsPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    int ok = 0;
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        if ("ok".equals(examRepository.save("data" + i))) {
+                            ok++;
+                        }
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(requestsPerThread);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int requests = threads * requestsPerThread;
+        long retries = budget.getRetries() - retriesBefore;
+        log.info("budget={}, faultInjector={}", budget, examFaultInjector);
+        assertThat(budget.getRequests() - requestsBefore).isEqualTo(requests);
+        assertThat(retries).isEqualTo(examFaultInjector.getFaults() - faultsBefore);
+        assertThat(retries).isLessThanOrEqualTo((long) (10 + 0.3 * requests));
+    }
+
+    /**
+     * 계속 실패하는 하위 시스템이면 예산 없이는 요청마다 4번씩 호출하지만, 예산이 바닥난 뒤에는 재시도하지 않음
+     */
+    @Test
+    void alwaysFailingDependencyStopsRetrying() {
+        int requests = 100;
+        for (int i = 0; i < requests; i++) {
+            assertThatThrownBy(() -> alwaysFailService.call()).isInstanceOf(IllegalStateException.class);
+        }
+
+        log.info("calls={}", alwaysFailService.getCalls());
+        assertThat(alwaysFailService.getCalls()).isLessThanOrEqualTo(requests + 10 + (int) (0.1 * requests));
+    }
+
+    @Test
+    void nonRetryableExceptionIsNotRetried() {
+        int before = alwaysFailService.getCalls();
+        assertThatThrownBy(() -> alwaysFailService.callNonRetryable()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(alwaysFailService.getCalls() - before).isEqualTo(1);
+    }
+
+    /**
+     * 비동기 메서드는 실패한 future 에 이어서 재시도하고, 호출자는 최종 결과만 받음
+     */
+    @Test
+    void asyncRetry() {
+        CompletableFuture<String> result = asyncService.failTwice();
+        assertThat(result.join()).isEqualTo("ok");
+        assertThat(asyncService.getCalls()).isEqualTo(3);
+    }
+
+    /**
+     * 돌려받은 future 를 취소하면 진행 중인 시도의 future 도 취소됨
+     */
+    @Test
+    void cancelPropagatesToInFlightAttempt() {
+        CompletableFuture<String> result = asyncService.failThenHang();
+        CompletableFuture<String> inFlight = asyncService.getHanging();
+        assertThat(inFlight).isNotNull();
+
+        result.cancel(true);
+        assertThat(inFlight).isCancelled();
+    }
+
+    /**
+     * 예약된 다음 시도를 기다리는 동안 취소하면 더 이상 시도하지 않음
+     */
+    @Test
+    void cancelStopsScheduledAttempts() throws InterruptedException {
+        CompletableFuture<String> result = asyncService.alwaysFail();
+        int calls = asyncService.getFailures();
+
+        result.cancel(true);
+        Thread.sleep(300);
+        assertThat(asyncService.getFailures()).isEqualTo(calls);
+    }
+
+    static class AlwaysFailService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public int getCalls() {
+            return calls.get();
+        }
+
+        @Retry(value = 4, budgetRatio = 0.1)
+        public String call() {
+            calls.incrementAndGet();
+            throw new IllegalStateException("항상 실패");
+        }
+
+        @Retry(value = 4, noRetryFor = IllegalArgumentException.class)
+        public String callNonRetryable() {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("재시도 대상 아님");
+        }
+    }
+
+    static class AsyncService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger hangCalls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile CompletableFuture<String> hanging;
+
+        public int getCalls() {
+            return calls.get();
+        }
+
+        @Retry(value = 3, backoff = 10)
+        public CompletableFuture<String> failTwice() {
+            int call = calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                if (call < 3) {
+                    throw new IllegalStateException("실패 call=" + call);
+                }
+                return "ok";
+            });
+        }
+
+        public int getFailures() {
+            return failures.get();
+        }
+
+        public CompletableFuture<String> getHanging() {
+            return hanging;
+        }
+
+        @Retry(value = 2)
+        public CompletableFuture<String> failThenHang() {
+            if (hangCalls.incrementAndGet() % 2 == 1) {
+                return CompletableFuture.failedFuture(new IllegalStateException("실패"));
+            }
+            hanging = new CompletableFuture<>();
+            return hanging;
+        }
+
+        @Retry(value = 5, backoff = 100, jitter = 0)
+        public CompletableFuture<String> alwaysFail() {
+            failures.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("항상 실패"));
+        }
+    }
+}
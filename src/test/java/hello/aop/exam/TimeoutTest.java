@@ -0,0 +1,211 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.annotation.Timeout;
+import hello.aop.exam.aop.Deadline;
+import hello.aop.exam.aop.DeadlineExceededException;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TimeoutAspect;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 바깥 @Timeout 의 마감 시각이 안쪽 @Timeout 호출로 전달되고, 남은 시간이 없으면 안쪽 대상은 호출되지 않음
+ */
+@Slf4j
+@SpringBootTest
+@Import({TimeoutAspect.class, RetryAspect.class, TimeoutTest.Outer.class, TimeoutTest.Inner.class})
+public class TimeoutTest {
+
+    @Autowired
+    Outer outer;
+
+    @Autowired
+    Inner inner;
+
+    @Autowired
+    TimeoutAspect timeoutAspect;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    void orderItemWithinDeadline() throws NoSuchMethodException {
+        orderService.orderItem("itemA");
+        assertThat(timeoutAspect.getExceeded(OrderService.class.getMethod("orderItem", String.class))).isZero();
+        assertThat(timeoutAspect.getFailedFast(OrderRepository.class.getMethod("save", String.class))).isZero();
+        assertThat(Deadline.remainingNanos()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * 안쪽은 1초를 허용하지만 바깥에 남은 시간(100ms 이하)을 넘지 못함
+     */
+    @Test
+    void innerUsesOuterDeadline() {
+        long remaining = outer.remainingInside();
+        assertThat(remaining).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    /**
+     * 바깥이 시간을 다 쓴 뒤 안쪽을 호출하면 안쪽 대상은 실행되지 않고, 바깥도 마감을 넘겨서 실패함
+     */
+    @Test
+    void failsFastWhenBudgetIsSpent() throws NoSuchMethodException {
+        int before = inner.getCalls();
+        assertThatThrownBy(() -> outer.spendThenCall(150)).isInstanceOf(DeadlineExceededException.class);
+        assertThat(inner.getCalls()).isEqualTo(before);
+        assertThat(timeoutAspect.getFailedFast(Inner.class.getMethod("work"))).isGreaterThanOrEqualTo(1);
+        assertThat(Deadline.remainingNanos()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * 바깥 마감 시각이 지난 뒤에 실패한 호출은 재시도하지 않음 (안쪽 @Timeout 이 바로 실패시킨 호출을 다시 시도하지 않음)
+     */
+    @Test
+    void doesNotRetryWhenBudgetIsSpent() throws NoSuchMethodException {
+        Method retriedWork = Inner.class.getMethod("retriedWork");
+        long before = timeoutAspect.getFailedFast(retriedWork);
+        assertThatThrownBy(() -> outer.spendThenRetry(80)).isInstanceOf(DeadlineExceededException.class);
+        assertThat(timeoutAspect.getFailedFast(retriedWork) - before).isEqualTo(1);
+    }
+
+    /**
+     * backoff 를 기다리는 동안 바깥 마감 시각이 지나게 되면 기다리지 않고 마지막 예외로 끝냄
+     * - 150ms 안에서 100ms, 200ms, ... 를 기다려야 하므로 두 번째 시도 뒤에는 재시도하지 않음
+     */
+    @Test
+    void retryBackoffStaysWithinDeadline() {
+        int before = inner.getFailures();
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> outer.retryWithinDeadline()).isInstanceOf(IllegalStateException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(inner.getFailures() - before).isBetween(1, 2);
+    }
+
+    /**
+     * 인터럽트하지 않는 동기 메서드가 마감 시각을 넘겨서 끝나면 결과를 버리지 않고 늦은 호출로 셈
+     */
+    @Test
+    void returnsLateResult() throws NoSuchMethodException {
+        Method slowWork = Inner.class.getMethod("slowWork", long.class);
+        long late = timeoutAspect.getLate(slowWork);
+        long exceeded = timeoutAspect.getExceeded(slowWork);
+        assertThat(inner.slowWork(100)).isEqualTo("done");
+        assertThat(timeoutAspect.getLate(slowWork) - late).isEqualTo(1);
+        assertThat(timeoutAspect.getExceeded(slowWork)).isEqualTo(exceeded);
+    }
+
+    @Test
+    void interruptsBlockedCall() {
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> inner.sleep(5_000)).isInstanceOf(DeadlineExceededException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    /**
+     * 비동기 결과는 마감 시각에 DeadlineExceededException 으로 끝나고 원래 작업은 취소됨
+     */
+    @Test
+    void cancelsAsyncWork() {
+        CompletableFuture<String> never = new CompletableFuture<>();
+        CompletableFuture<String> result = inner.async(never);
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(never.isCancelled()).isTrue();
+    }
+
+    @RequiredArgsConstructor
+    static class Outer {
+
+        private final Inner inner;
+
+        @Timeout(100)
+        public long remainingInside() {
+            return inner.remaining();
+        }
+
+        @Timeout(100)
+        public void spendThenCall(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            inner.work();
+        }
+
+        @Timeout(50)
+        public void spendThenRetry(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            inner.retriedWork();
+        }
+
+        @Timeout(150)
+        public void retryWithinDeadline() {
+            inner.failWithBackoff();
+        }
+    }
+
+    static class Inner {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        public int getCalls() {
+            return calls.get();
+        }
+
+        public int getFailures() {
+            return failures.get();
+        }
+
+        @Timeout(1000)
+        public long remaining() {
+            return Deadline.remainingNanos();
+        }
+
+        @Timeout(1000)
+        public void work() {
+            calls.incrementAndGet();
+        }
+
+        @Retry(5)
+        @Timeout(1000)
+        public void retriedWork() {
+            calls.incrementAndGet();
+        }
+
+        @Retry(value = 10, backoff = 100, jitter = 0)
+        public void failWithBackoff() {
+            failures.incrementAndGet();
+            throw new IllegalStateException("실패");
+        }
+
+        @Timeout(50)
+        public String slowWork(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "done";
+        }
+
+        @Timeout(value = 50, interrupt = true)
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+
+        @Timeout(50)
+        public CompletableFuture<String> async(CompletableFuture<String> work) {
+            return work;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package hello.aop.exam;
+
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.Span;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.exam.aop.TraceListener;
+import hello.aop.exam.fault.FaultInjector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * trace.slow-threshold-ms=0 이면 모든 요청의 호출 트리가 출력됨
+ * (결과) [trace] traceId=5c1e... spans=2
+ *       |-- ExamService.request(..) 1.234ms (spanId=1)
+ *       |   |-- ExamRepository.save(..) 0.321ms (spanId=2, parent=1)
+ * => RetryAspect(@Order(1)) 가 TraceAspect(가장 안쪽) 보다 바깥에 있으므로 재시도 한 번마다 save 구간이 하나씩 기록됨
+ *    ExamRepository.save 가 실패하고 재시도된 요청은 실패한 save 구간과 성공한 save 구간이 함께 기록됨
+ */
+@Slf4j
+@SpringBootTest(properties = "trace.slow-threshold-ms=0")
+@Import({TraceAspect.class, RetryAspect.class, TraceTest.RecordingListener.class})
+public class TraceTest {
+
+    @Autowired
+    ExamService examService;
+
+    @Autowired
+    RecordingListener listener;
+
+    @Autowired
+    FaultInjector examFaultInjector;
+
+    @Test
+    void callTree() {
+        listener.clear();
+        long faultsBefore = examFaultInjector.getFaults();
+        int requests = 10;
+        for (int i = 0; i < requests; i++) {
+            examService.request("data" + i);
+        }
+
+        List<List<RecordedSpan>> traces = listener.getTraces();
+        assertThat(traces).hasSize(requests);
+        int failedSaves = 0;
+        for (List<RecordedSpan> trace : traces) {
+            RecordedSpan root = trace.get(0);
+            assertThat(root.name).contains("ExamService.request");
+            assertThat(root.depth).isZero();
+            assertThat(root.parentSpanId).isZero();
+            assertThat(root.failed).isFalse();
+
+            List<RecordedSpan> saves = trace.subList(1, trace.size());
+            assertThat(saves).isNotEmpty();
+            for (RecordedSpan save : saves) {
+                assertThat(save.name).contains("ExamRepository.save");
+                assertThat(save.depth).isEqualTo(1);
+                assertThat(save.parentSpanId).isEqualTo(root.spanId);
+            }
+            // 마지막 시도만 성공하고 그 앞의 시도는 모두 실패함
+            assertThat(saves.get(saves.size() - 1).failed).isFalse();
+            for (RecordedSpan save : saves.subList(0, saves.size() - 1)) {
+                assertThat(save.failed).isTrue();
+                failedSaves++;
+            }
+        }
+        assertThat(failedSaves).isEqualTo(examFaultInjector.getFaults() - faultsBefore).isPositive();
+    }
+
+    static class RecordingListener implements TraceListener {
+
+        private final List<List<RecordedSpan>> traces = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onTrace(List<Span> spans) {
+            List<RecordedSpan> trace = new ArrayList<>(spans.size());
+            for (Span span : spans) {
+                trace.add(new RecordedSpan(span));
+            }
+            traces.add(trace);
+        }
+
+        public List<List<RecordedSpan>> getTraces() {
+            return traces;
+        }
+
+        public void clear() {
+            traces.clear();
+        }
+    }
+
+    static class RecordedSpan {
+
+        private final String name;
+        private final int spanId;
+        private final int parentSpanId;
+        private final int depth;
+        private final boolean failed;
+
+        RecordedSpan(Span span) {
+            this.name = span.getName();
+            this.spanId = span.getSpanId();
+            this.parentSpanId = span.getParentSpanId();
+            this.depth = span.getDepth();
+            this.failed = span.isFailed();
+        }
+    }
+}
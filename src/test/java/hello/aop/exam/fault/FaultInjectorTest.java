@@ -0,0 +1,83 @@
+package hello.aop.exam.fault;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FaultInjectorTest {
+
+    @Test
+    void everyNOnSingleThread() {
+        FaultInjector injector = FaultInjector.everyN(5);
+        for (int i = 1; i <= 20; i++) {
+            assertThat(injector.shouldFail()).isEqualTo(i % 5 == 0);
+        }
+        assertThat(injector.getCalls()).isEqualTo(20);
+        assertThat(injector.getFaults()).isEqualTo(4);
+    }
+
+    @Test
+    void burst() {
+        FaultInjector injector = FaultInjector.burst(3, 10);
+        for (int i = 0; i < 30; i++) {
+            assertThat(injector.shouldFail()).isEqualTo(i % 10 < 3);
+        }
+    }
+
+    @Test
+    void probabilistic() {
+        FaultInjector injector = FaultInjector.probabilistic(0.2);
+        for (int i = 0; i < 100_000; i++) {
+            injector.shouldFail();
+        }
+        assertThat(injector.getFaults() / 100_000.0).isCloseTo(0.2, within(0.01));
+        assertThat(FaultInjector.probabilistic(0).shouldFail()).isFalse();
+        assertThat(FaultInjector.probabilistic(1).shouldFail()).isTrue();
+    }
+
+    /**
+     * 여러 스레드에서 호출해도 호출 수를 잃어버리지 않고, 실패 수는 정확히 호출 수의 1/N 이 됨
+     */
+    @Test
+    void everyNUnderContention() throws InterruptedException {
+        FaultInjector injector = FaultInjector.everyN(5);
+        int threads = 8;
+        int callsPerThread = 100_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    injector.shouldFail();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long calls = (long) threads * callsPerThread;
+        assertThat(injector.getCalls()).isEqualTo(calls);
+        assertThat(injector.getFaults()).isEqualTo(calls / 5);
+    }
+
+    @Test
+    void invalidSettings() {
+        assertThatThrownBy(() -> FaultInjector.everyN(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjector.probabilistic(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjector.burst(5, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
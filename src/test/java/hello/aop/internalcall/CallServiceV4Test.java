@@ -0,0 +1,31 @@
+package hello.aop.internalcall;
+
+import hello.aop.internalcall.aop.CallLogAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+@Import(CallLogAspect.class)
+@SpringBootTest
+class CallServiceV4Test {
+
+    @Autowired CallServiceV4 callServiceV4;
+
+    @Test
+    void external(){
+        callServiceV4.external();
+    }
+
+    @Test
+    void selfIsFinalBean(){
+        Object target = AopTestUtils.getTargetObject(callServiceV4);
+        assertThat(ReflectionTestUtils.getField(target, "self")).isSameAs(callServiceV4);
+    }
+}
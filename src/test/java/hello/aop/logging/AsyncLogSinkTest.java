@@ -0,0 +1,97 @@
+package hello.aop.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class AsyncLogSinkTest {
+
+    /**
+     * BLOCK 정책이면 버퍼가 작아도 이벤트를 잃지 않음
+     */
+    @Test
+    void blockPolicyKeepsEveryEvent() throws InterruptedException {
+        AsyncLogSink sink = new AsyncLogSink(8, 4, OverflowPolicy.BLOCK);
+        sink.start();
+        publishConcurrently(4, 500);
+        sink.stop();
+
+        log.info("sink={}", sink);
+        assertThat(sink.getPublished()).isEqualTo(2000);
+        assertThat(sink.getDropped()).isZero();
+    }
+
+    /**
+     * DROP 정책이면 넣은 이벤트와 버린 이벤트의 합이 전체 이벤트 수와 같음
+     */
+    @Test
+    void dropPolicyCountsDroppedEvents() throws InterruptedException {
+        AsyncLogSink sink = new AsyncLogSink(8, 4, OverflowPolicy.DROP);
+        sink.start();
+        publishConcurrently(4, 500);
+        sink.stop();
+
+        log.info("sink={}", sink);
+        assertThat(sink.getPublished() + sink.getDropped()).isEqualTo(2000);
+    }
+
+    /**
+     * 생산자가 이벤트를 넣는 도중에 멈춰도, 넣었다고 응답한 이벤트는 모두 출력됨 (나머지는 호출자가 직접 출력함)
+     */
+    @Test
+    void stopWhilePublishingLosesNothing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            AsyncLogSink sink = new AsyncLogSink(8, 4, OverflowPolicy.BLOCK);
+            sink.start();
+            int threads = 4;
+            AtomicLong accepted = new AtomicLong();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> producers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    producers.add(executor.submit(() -> {
+                        for (int i = 0; i < 1000; i++) {
+                            if (sink.publish(log, "[sink-test] i={}", 1, i, null)) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                sink.stop();
+                for (Future<?> producer : producers) {
+                    producer.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertThat(sink.getWritten()).isEqualTo(accepted.get());
+        }
+    }
+
+    private void publishConcurrently(int threads, int eventsPerThread) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    AspectLog.info(log, "[sink-test] thread={} i={}", thread, i);
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,37 @@
+package hello.aop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyMetricsTest {
+
+    /**
+     * 오버로드된 메서드는 이름이 달라서 스냅샷에서 서로 덮어쓰지 않음
+     */
+    @Test
+    void overloadsHaveSeparateNames() throws NoSuchMethodException {
+        LatencyMetrics metrics = new LatencyMetrics();
+        metrics.timer(Overloads.class.getMethod("work", String.class)).record(1_000);
+        metrics.timer(Overloads.class.getMethod("work", String.class, int.class)).record(2_000);
+        metrics.timer(Overloads.class.getMethod("work", String.class, int.class)).record(3_000);
+
+        Map<String, HistogramSnapshot> snapshot = metrics.snapshot();
+        assertThat(snapshot).containsOnlyKeys(
+                "hello.aop.metrics.LatencyMetricsTest$Overloads.work(String)",
+                "hello.aop.metrics.LatencyMetricsTest$Overloads.work(String,int)");
+        assertThat(snapshot.get("hello.aop.metrics.LatencyMetricsTest$Overloads.work(String)").getCount()).isEqualTo(1);
+        assertThat(snapshot.get("hello.aop.metrics.LatencyMetricsTest$Overloads.work(String,int)").getCount()).isEqualTo(2);
+    }
+
+    static class Overloads {
+
+        public void work(String itemId) {
+        }
+
+        public void work(String itemId, int count) {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.order;
+
+import hello.aop.metrics.LatencyMetrics;
+import hello.aop.order.aop.TimedAspect;
+import hello.aop.order.aop.TransactionAspect;
+import hello.aop.store.OrderStore;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+@Import({TransactionAspect.class, TimedAspect.class})
+class OrderBatchTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderStore orderStore;
+
+    @Autowired
+    TimedAspect timedAspect;
+
+    /**
+     * 실패한 주문은 결과에 담기고, 나머지 주문은 한 트랜잭션으로 커밋됨
+     */
+    @Test
+    void orderItems() {
+        long beforeA = orderStore.count("batchA");
+        long beforeEx = orderStore.count("ex");
+
+        OrderBatchResult result = orderService.orderItems(List.of("batchA", "ex", "batchA", "batchB"));
+        log.info("result={}", result);
+
+        assertThat(result.size()).isEqualTo(4);
+        assertThat(result.getSuccessCount()).isEqualTo(3);
+        assertThat(result.getFailures()).hasSize(1);
+        OrderBatchResult.Failure failure = result.getFailures().get(0);
+        assertThat(failure.getIndex()).isEqualTo(1);
+        assertThat(failure.getItemId()).isEqualTo("ex");
+        assertThat(failure.getCause()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(orderStore.count("batchA")).isEqualTo(beforeA + 2);
+        assertThat(orderStore.count("ex")).isEqualTo(beforeEx);
+    }
+
+    /**
+     * 어드바이스는 주문마다가 아니라 배치마다 한 번 실행되고, 주문 하나씩 저장하는 save 는 호출되지 않음
+     * 컴파일 타임 위빙(-PaopMode=ctw)에서는 다른 테스트의 호출도 함께 기록되므로 증가분으로 확인함
+     */
+    @Test
+    void advisedOncePerBatch() throws NoSuchMethodException {
+        Method orderItems = OrderService.class.getMethod("orderItems", Collection.class);
+        Method saveAll = OrderRepository.class.getMethod("saveAll", Collection.class);
+        Method save = OrderRepository.class.getMethod("save", String.class);
+        long beforeOrderItems = count(orderItems);
+        long beforeSaveAll = count(saveAll);
+        long beforeSave = count(save);
+
+        orderService.orderItems(List.of("batchA", "batchB", "batchC", "batchD", "batchE"));
+
+        assertThat(count(orderItems) - beforeOrderItems).isEqualTo(1);
+        assertThat(count(saveAll) - beforeSaveAll).isEqualTo(1);
+        assertThat(count(save) - beforeSave).isZero();
+    }
+
+    /**
+     * null 이나 빈 상품 id 는 IllegalArgumentException 으로 결과에 담기고, 나머지 주문은 반영됨
+     */
+    @Test
+    void nullAndBlankItems() {
+        long before = orderStore.count("batchN");
+
+        OrderBatchResult result = orderService.orderItems(Arrays.asList("batchN", null, " "));
+
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+        assertThat(result.getFailures()).extracting(OrderBatchResult.Failure::getIndex).containsExactly(1, 2);
+        assertThat(result.getFailures()).extracting(OrderBatchResult.Failure::getCause)
+                .allMatch(cause -> cause instanceof IllegalArgumentException);
+        assertThat(orderStore.count("batchN")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void emptyBatch() {
+        OrderBatchResult result = orderService.orderItems(List.of());
+        assertThat(result.size()).isZero();
+        assertThat(result.hasFailures()).isFalse();
+    }
+
+    private long count(Method method) {
+        LatencyMetrics.MethodTimer timer = timedAspect.getMetrics().timer(method);
+        return timer.getHistogram().snapshot().getCount();
+    }
+}
@@ -0,0 +1,35 @@
+package hello.aop.order;
+
+import hello.aop.store.OrderStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * TransactionAspect 없이 (쓰기마다 바로 커밋) 실패한 주문은 저장소에 남지 않음
+ */
+@SpringBootTest
+class OrderRepositoryTest {
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderStore orderStore;
+
+    @Test
+    void failedOrderIsNotWritten() {
+        long before = orderStore.count("ex");
+        assertThatThrownBy(() -> orderRepository.save("ex")).isInstanceOf(IllegalStateException.class);
+        assertThat(orderStore.count("ex")).isEqualTo(before);
+    }
+
+    @Test
+    void savedOrderIsWritten() {
+        long before = orderStore.count("itemA");
+        assertThat(orderRepository.save("itemA")).isEqualTo("ok");
+        assertThat(orderStore.count("itemA")).isEqualTo(before + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package hello.aop.order;
+
+import hello.aop.metrics.HistogramSnapshot;
+import hello.aop.order.aop.TimedAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+@Import(TimedAspect.class)
+public class TimedTest {
+
+    private static final String ORDER_ITEM = "hello.aop.order.OrderService.orderItem(String)";
+    private static final String SAVE = "hello.aop.order.OrderRepository.save(String)";
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    TimedAspect timedAspect;
+
+    /**
+     * 컴파일 타임 위빙(-PaopMode=ctw)에서는 애스펙트 인스턴스가 JVM 에 하나뿐이라 다른 테스트의 호출도 함께 기록되므로 증가분으로 확인함
+     */
+    @Test
+    void recordsEveryOrderMethod() {
+        Map<String, HistogramSnapshot> before = timedAspect.getMetrics().snapshot();
+        for (int i = 0; i < 100; i++) {
+            orderService.orderItem("item" + i);
+        }
+        assertThatThrownBy(() -> orderService.orderItem("ex")).isInstanceOf(IllegalStateException.class);
+
+        Map<String, HistogramSnapshot> snapshot = timedAspect.getMetrics().snapshot();
+        timedAspect.getMetrics().dump();
+        assertThat(count(snapshot, ORDER_ITEM) - count(before, ORDER_ITEM)).isEqualTo(101);
+        assertThat(count(snapshot, SAVE) - count(before, SAVE)).isEqualTo(101);
+    }
+
+    private static long count(Map<String, HistogramSnapshot> snapshot, String name) {
+        HistogramSnapshot histogram = snapshot.get(name);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+}
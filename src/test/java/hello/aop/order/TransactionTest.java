@@ -0,0 +1,60 @@
+package hello.aop.order;
+
+import hello.aop.order.aop.TransactionAspect;
+import hello.aop.store.OrderStore;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+@SpringBootTest
+@Import({TransactionAspect.class, TransactionTest.FailingService.class})
+class TransactionTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    FailingService failingService;
+
+    @Autowired
+    OrderStore orderStore;
+
+    @Test
+    void commit() {
+        long before = orderStore.count("itemA");
+        orderService.orderItem("itemA");
+        assertThat(orderStore.count("itemA")).isEqualTo(before + 1);
+    }
+
+    /**
+     * 주문을 쓴 뒤에 예외가 발생하면 트랜잭션이 롤백되어 이미 쓴 주문도 저장소에 반영되지 않음
+     */
+    @Test
+    void rollback() {
+        long before = orderStore.count("rollbackItem");
+        assertThatThrownBy(() -> failingService.saveThenFail("rollbackItem")).isInstanceOf(IllegalStateException.class);
+        assertThat(orderStore.count("rollbackItem")).isEqualTo(before);
+    }
+
+    /**
+     * orderAndService() 에 걸리는 서비스, 주문을 저장한 다음 예외를 던짐
+     */
+    static class FailingService {
+
+        private final OrderRepository orderRepository;
+
+        FailingService(OrderRepository orderRepository) {
+            this.orderRepository = orderRepository;
+        }
+
+        public void saveThenFail(String itemId) {
+            orderRepository.save(itemId);
+            throw new IllegalStateException("저장 후 예외 발생");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package hello.aop.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileOrderStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 동시에 커밋하면 fsync 한 번에 여러 커밋이 함께 반영되고, 반영된 주문 수는 커밋한 수와 같음
+     * - fsync 를 20ms 씩 걸리게 해서, fsync 하는 동안 다른 스레드의 커밋이 항상 큐에 쌓이도록 함
+     */
+    @Test
+    void groupCommit() throws Exception {
+        Path path = directory.resolve("orders.log");
+        int threads = 16;
+        int commitsPerThread = 50;
+        UnaryOperator<FileChannel> slowForce = channel -> {
+            FaultyFileChannel slow = new FaultyFileChannel(channel);
+            slow.forceDelayMillis = 20;
+            return slow;
+        };
+        try (FileOrderStore store = new FileOrderStore(path, 1024, true, slowForce)) {
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String itemId = "item" + t;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < commitsPerThread; i++) {
+                            store.commit(List.of(itemId));
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(store.size()).isEqualTo(threads * commitsPerThread);
+            assertThat(store.count("item0")).isEqualTo(commitsPerThread);
+            assertThat(store.getCommits()).isEqualTo(threads * commitsPerThread);
+            // 스레드 16 개가 50 번씩 커밋하므로 배치마다 평균 2 개 이상이 모여야 함
+            assertThat(store.getBatches()).isLessThan(store.getCommits() / 2);
+        }
+        assertThat(Files.readAllLines(path)).hasSize(threads * commitsPerThread);
+    }
+
+    /**
+     * 쓰는 도중에 실패한 배치는 잘라내므로 다음 커밋이 반쯤 쓴 줄 뒤에 붙지 않고, 다시 열어도 실패한 주문은 없음
+     */
+    @Test
+    void failedWriteIsRolledBack() throws IOException {
+        Path path = directory.resolve("orders.log");
+        FaultyFileChannel[] channel = new FaultyFileChannel[1];
+        try (FileOrderStore store = new FileOrderStore(path, 16, true, c -> channel[0] = new FaultyFileChannel(c))) {
+            store.commit(List.of("itemA"));
+            channel[0].failWrite = true;
+            assertThatThrownBy(() -> store.commit(List.of("itemB", "itemB"))).isInstanceOf(UncheckedIOException.class);
+            channel[0].failWrite = false;
+            store.commit(List.of("itemC"));
+            assertThat(store.count("itemB")).isZero();
+        }
+
+        assertThat(Files.readAllLines(path)).containsExactly("itemA", "itemC");
+        try (FileOrderStore store = new FileOrderStore(path, 16, false)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.count("itemB")).isZero();
+        }
+    }
+
+    /**
+     * 실패한 쓰기를 잘라내지도 못하면 저장소를 닫고, 이후 커밋은 거절함
+     */
+    @Test
+    void failedRollbackClosesStore() throws IOException {
+        Path path = directory.resolve("orders.log");
+        FaultyFileChannel[] channel = new FaultyFileChannel[1];
+        try (FileOrderStore store = new FileOrderStore(path, 16, true, c -> channel[0] = new FaultyFileChannel(c))) {
+            store.commit(List.of("itemA"));
+            channel[0].failWrite = true;
+            channel[0].failTruncate = true;
+            assertThatThrownBy(() -> store.commit(List.of("itemB"))).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> store.commit(List.of("itemC"))).isInstanceOf(IllegalStateException.class);
+            assertThat(channel[0].isOpen()).isFalse();
+        }
+
+        // 남은 반쪽 줄은 다시 열 때 버림
+        try (FileOrderStore store = new FileOrderStore(path, 16, false)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.count("itemB")).isZero();
+        }
+    }
+
+    @Test
+    void recover() throws IOException {
+        Path path = directory.resolve("orders.log");
+        try (FileOrderStore store = new FileOrderStore(path, 16, false)) {
+            store.commit(List.of("itemA", "itemB"));
+            store.commit(List.of("itemA"));
+        }
+
+        try (FileOrderStore store = new FileOrderStore(path, 16, false)) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.count("itemA")).isEqualTo(2);
+            store.commit(List.of("itemC"));
+        }
+        assertThat(Files.readAllLines(path)).containsExactly("itemA", "itemB", "itemA", "itemC");
+    }
+
+    /**
+     * 쓰는 도중에 종료되어 마지막 줄이 줄바꿈 없이 끝나면 그 줄은 버림
+     */
+    @Test
+    void discardIncompleteRecord() throws IOException {
+        Path path = directory.resolve("orders.log");
+        Files.write(path, "itemA\nitemB\nite".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+
+        try (FileOrderStore store = new FileOrderStore(path, 16, false)) {
+            assertThat(store.size()).isEqualTo(2);
+            store.commit(List.of("itemC"));
+        }
+        assertThat(Files.readAllLines(path)).containsExactly("itemA", "itemB", "itemC");
+    }
+}
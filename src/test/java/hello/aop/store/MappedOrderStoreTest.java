@@ -0,0 +1,161 @@
+package hello.aop.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MappedOrderStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 세그먼트 여러 개에 걸쳐서 쓰고, 다시 열면 인덱스가 그대로 복구됨
+     */
+    @Test
+    void recoverAcrossSegments() {
+        Path path = directory.resolve("orders.log");
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.NEVER, 0)) {
+            for (int i = 0; i < 1_000; i++) {
+                store.commit(List.of("item" + (i % 10), "itemX"));
+            }
+            assertThat(store.find("item3").getSequence()).isEqualTo(1_987);
+        }
+
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.NEVER, 0)) {
+            assertThat(store.size()).isEqualTo(2_000);
+            assertThat(store.count("item3")).isEqualTo(100);
+            assertThat(store.count("itemX")).isEqualTo(1_000);
+            OrderRecord record = store.find("item3");
+            assertThat(record.getItemId()).isEqualTo("item3");
+            assertThat(record.getSequence()).isEqualTo(1_987);
+            assertThat(store.find("none")).isNull();
+
+            store.commit(List.of("item3"));
+            assertThat(store.find("item3").getSequence()).isEqualTo(2_001);
+        }
+    }
+
+    /**
+     * 마지막 레코드가 손상되면(쓰는 도중 종료) 그 레코드부터 버리고 이어서 씀
+     */
+    @Test
+    void discardCorruptedTail() throws IOException {
+        Path path = directory.resolve("orders.log");
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            store.commit(List.of("itemA"));
+            store.commit(List.of("itemB"));
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        int last = bytes.length - 1;
+        while (bytes[last] == 0) {
+            last--;
+        }
+        bytes[last] ^= 1;
+        Files.write(path, bytes);
+
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.count("itemB")).isZero();
+            store.commit(List.of("itemC"));
+        }
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.find("itemC").getSequence()).isEqualTo(2);
+        }
+    }
+
+    /**
+     * 여러 레코드를 쓰는 도중에 종료되면(커밋 마커가 없음) 그 커밋의 레코드는 하나도 반영되지 않음
+     */
+    @Test
+    void discardCommitWithoutMarker() throws IOException {
+        Path path = directory.resolve("orders.log");
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            store.commit(List.of("itemA"));
+            store.commit(List.of("itemB", "itemC", "itemD"));
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        int end = bytes.length;
+        while (bytes[end - 1] == 0) {
+            end--;
+        }
+        // 마지막 커밋 마커(20 바이트)만 지움, 레코드 3개는 CRC 가 맞는 채로 남음
+        Arrays.fill(bytes, end - 20, end, (byte) 0);
+        Files.write(path, bytes);
+
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.count("itemB")).isZero();
+            assertThat(store.count("itemD")).isZero();
+            store.commit(List.of("itemE"));
+            assertThat(store.find("itemE").getSequence()).isEqualTo(2);
+        }
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0)) {
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.count("itemC")).isZero();
+        }
+    }
+
+    /**
+     * 동시에 커밋하면 fsync 한 번에 여러 커밋이 함께 반영되고, 커밋을 잃어버리지 않음
+     * - fsync 를 5ms 씩 걸리게 해서, fsync 하는 동안 다른 스레드의 커밋이 항상 쌓이도록 함
+     */
+    @Test
+    void groupCommit() throws Exception {
+        Path path = directory.resolve("orders.log");
+        int threads = 8;
+        int commitsPerThread = 200;
+        Runnable slowForce = () -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try (MappedOrderStore store = new MappedOrderStore(path, SEGMENT_SIZE, FsyncPolicy.ALWAYS, 0, slowForce)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String itemId = "item" + t;
+                    results.add(executor.submit(() -> {
+                        for (int i = 0; i < commitsPerThread; i++) {
+                            store.commit(List.of(itemId));
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertThat(store.size()).isEqualTo(threads * commitsPerThread);
+            assertThat(store.count("item0")).isEqualTo(commitsPerThread);
+            assertThat(store.getForces()).isPositive().isLessThan(threads * commitsPerThread);
+        }
+    }
+
+    @Test
+    void rejectTooLongItemId() {
+        try (MappedOrderStore store = new MappedOrderStore(directory.resolve("orders.log"), SEGMENT_SIZE, FsyncPolicy.NEVER, 0)) {
+            assertThatThrownBy(() -> store.commit(List.of("ok", "x".repeat(SEGMENT_SIZE))))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(store.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package hello.aop.support;
+
+import hello.aop.exam.aop.CallRejectedException;
+import hello.aop.metrics.HistogramSnapshot;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.TimedAspect;
+import hello.aop.support.control.AdviceControl;
+import hello.aop.support.control.AdviceInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 스프링 프록시 방식에서만 의미가 있으므로 컴파일 타임 위빙(-PaopMode=ctw, spring.aop.auto=false) 에서는 실행하지 않음
+ */
+@Slf4j
+@DisabledIfSystemProperty(named = "spring.aop.auto", matches = "false")
+@SpringBootTest
+@Import(TimedAspect.class)
+class AdviceControlTest {
+
+    private static final String ORDER_ITEM = "hello.aop.order.OrderService.orderItem(String)";
+    private static final String SAVE = "hello.aop.order.OrderRepository.save(String)";
+
+    @Autowired
+    AdviceControl adviceControl;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    TimedAspect timedAspect;
+
+    @Autowired
+    AutowireCapableBeanFactory beanFactory;
+
+    @AfterEach
+    void reset() {
+        adviceControl.reset("TimedAspect");
+    }
+
+    @Test
+    void disableRemovesAdviceFromChain() {
+        long before = count(ORDER_ITEM);
+
+        assertThat(adviceControl.disable("TimedAspect")).isEqualTo(1);
+        orderService.orderItem("itemA");
+        assertThat(count(ORDER_ITEM)).isEqualTo(before);
+
+        adviceControl.enable("TimedAspect");
+        orderService.orderItem("itemA");
+        assertThat(count(ORDER_ITEM)).isEqualTo(before + 1);
+    }
+
+    @Test
+    void disableDoesNotTouchAdvisorList() {
+        int advisors = ((Advised) orderService).getAdvisorCount();
+
+        adviceControl.disable("TimedAspect");
+        assertThat(((Advised) orderService).getAdvisorCount()).isEqualTo(advisors);
+    }
+
+    @Test
+    void newProxyGetsCurrentState() {
+        adviceControl.disable("TimedAspect");
+        OrderService created = beanFactory.createBean(OrderService.class);
+        assertThat(AopUtils.isAopProxy(created)).isTrue();
+
+        long before = count(ORDER_ITEM);
+        created.orderItem("itemA");
+        assertThat(count(ORDER_ITEM)).isEqualTo(before);
+
+        adviceControl.enable("TimedAspect");
+        created.orderItem("itemA");
+        assertThat(count(ORDER_ITEM)).isEqualTo(before + 1);
+    }
+
+    @Test
+    void toggleWhileCalling() throws InterruptedException {
+        int threads = 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        try {
+                            orderService.orderItem("itemA");
+                        } catch (CallRejectedException e) {
+                            // 상품별 처리율 제한에 걸린 호출은 무시함
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        for (int i = 0; i < 50; i++) {
+            adviceControl.disable("TimedAspect");
+            adviceControl.setPointcut("TimedAspect#doTimed", "execution(* hello.aop.order.OrderService.*(..))");
+            adviceControl.reset("TimedAspect");
+        }
+        running.set(false);
+        done.await();
+        assertThat(failure.get()).isNull();
+    }
+
+    @Test
+    void setPointcut() {
+        adviceControl.setPointcut("TimedAspect#doTimed", "execution(* hello.aop.order.OrderService.*(..))");
+        List<AdviceInfo> infos = adviceControl.list();
+        log.info("advices={}", infos);
+
+        long service = count(ORDER_ITEM);
+        long repository = count(SAVE);
+        orderService.orderItem("itemA");
+        assertThat(count(ORDER_ITEM)).isEqualTo(service + 1);
+        assertThat(count(SAVE)).isEqualTo(repository);
+    }
+
+    /**
+     * 버려진 프록시는 AdviceControl 이 붙잡지 않으므로 GC 되고, 목록에서도 지워짐
+     */
+    @Test
+    void releasesCollectedProxies() throws InterruptedException {
+        int before = timedProxies();
+        List<OrderService> created = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            created.add(beanFactory.createBean(OrderService.class));
+        }
+        assertThat(timedProxies()).isGreaterThanOrEqualTo(100);
+
+        created = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (timedProxies() > before && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertThat(timedProxies()).isLessThanOrEqualTo(before);
+    }
+
+    @Test
+    void invalidSelectorOrExpression() {
+        assertThatThrownBy(() -> adviceControl.disable("NoSuchAspect")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> adviceControl.setPointcut("TimedAspect#doTimed", "execution(")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * TimedAspect#doTimed 가 들어 있는 프록시 수
+     */
+    private int timedProxies() {
+        for (AdviceInfo info : adviceControl.list()) {
+            if (info.getId().endsWith("TimedAspect#doTimed")) {
+                return info.getProxies();
+            }
+        }
+        return 0;
+    }
+
+    private long count(String name) {
+        HistogramSnapshot snapshot = timedAspect.getMetrics().snapshot().get(name);
+        return snapshot == null ? 0 : snapshot.getCount();
+    }
+}
@@ -0,0 +1,137 @@
+package hello.aop.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * AdviceMetadata 는 (대상 클래스, 메서드) 마다 한 번만 만들어지고, 인터페이스 메서드로 호출해도 구현 클래스 기준으로 만들어짐
+ * 프록시로 호출하면 프록시 클래스가 아니라 대상 클래스의 메타데이터를 사용함
+ */
+class AdviceMetadataCacheTest {
+
+    @Test
+    void resolvesOncePerClassAndMethod() throws Exception {
+        Method work = Api.class.getMethod("work");
+        AdviceMetadata first = AdviceMetadataCache.get(Annotated.class, work);
+        assertThat(AdviceMetadataCache.get(Annotated.class, work)).isSameAs(first);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<AdviceMetadata>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return AdviceMetadataCache.get(Inherited.class, work);
+                }));
+            }
+            start.countDown();
+            AdviceMetadata resolved = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<AdviceMetadata> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(resolved);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 같은 인터페이스 메서드라도 구현 클래스마다 따로 만들어짐
+     * - 구현 메서드의 애노테이션이 우선하고, 구현 메서드에 없으면 인터페이스 메서드의 애노테이션을 사용함
+     */
+    @Test
+    void interfaceMethodResolvesPerImplementation() throws Exception {
+        Method work = Api.class.getMethod("work");
+        AdviceMetadata annotated = AdviceMetadataCache.get(Annotated.class, work);
+        AdviceMetadata inherited = AdviceMetadataCache.get(Inherited.class, work);
+
+        assertThat(annotated).isNotSameAs(inherited);
+        assertThat(annotated.getMethod()).isEqualTo(Annotated.class.getMethod("work"));
+        assertThat(annotated.getTargetClass()).isEqualTo(Annotated.class);
+        assertThat(annotated.getAnnotation(Marker.class).value()).isEqualTo("impl");
+        assertThat(annotated.getClassAnnotation(Marker.class).value()).isEqualTo("class");
+
+        assertThat(inherited.getMethod()).isEqualTo(Inherited.class.getMethod("work"));
+        assertThat(inherited.getAnnotation(Marker.class).value()).isEqualTo("api");
+        assertThat(inherited.getClassAnnotation(Marker.class)).isNull();
+    }
+
+    /**
+     * JDK 동적 프록시, CGLIB 프록시로 호출해도 대상 클래스의 메타데이터를 찾음
+     */
+    @Test
+    void proxyResolvesTargetClass() throws Exception {
+        for (boolean proxyTargetClass : new boolean[]{false, true}) {
+            CapturingAspect aspect = new CapturingAspect();
+            AspectJProxyFactory factory = new AspectJProxyFactory(new Annotated());
+            factory.setProxyTargetClass(proxyTargetClass);
+            factory.addAspect(aspect);
+            Api proxy = factory.getProxy();
+            assertThat(AopUtils.isCglibProxy(proxy)).isEqualTo(proxyTargetClass);
+
+            assertThat(proxy.work()).isEqualTo("impl");
+
+            AdviceMetadata metadata = aspect.captured;
+            assertThat(metadata.getTargetClass()).isEqualTo(Annotated.class);
+            assertThat(metadata.getMethod()).isEqualTo(Annotated.class.getMethod("work"));
+            assertThat(metadata.getAnnotation(Marker.class).value()).isEqualTo("impl");
+            assertThat(metadata.getShortSignature()).isEqualTo("Annotated.work(..)");
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Marker {
+        String value();
+    }
+
+    interface Api {
+        @Marker("api")
+        String work();
+    }
+
+    @Marker("class")
+    static class Annotated implements Api {
+        @Marker("impl")
+        @Override
+        public String work() {
+            return "impl";
+        }
+    }
+
+    static class Inherited implements Api {
+        @Override
+        public String work() {
+            return "inherited";
+        }
+    }
+
+    @Aspect
+    static class CapturingAspect {
+
+        private volatile AdviceMetadata captured;
+
+        @Around("execution(String hello.aop.support..*.work())")
+        public Object capture(ProceedingJoinPoint joinPoint) throws Throwable {
+            captured = AdviceMetadataCache.get(joinPoint);
+            return joinPoint.proceed();
+        }
+    }
+}
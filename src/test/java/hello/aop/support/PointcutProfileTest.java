@@ -0,0 +1,99 @@
+package hello.aop.support;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import hello.aop.support.pointcut.PointcutProfileReport;
+import hello.aop.support.pointcut.ProfilingAspectJAutoProxyCreator;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 스프링 프록시 방식에서만 의미가 있으므로 컴파일 타임 위빙(-PaopMode=ctw, spring.aop.auto=false) 에서는 실행하지 않음
+ */
+@Slf4j
+@DisabledIfSystemProperty(named = "spring.aop.auto", matches = "false")
+@SpringBootTest(properties = "aop.pointcut-profile.enabled=true")
+@Import({AspectV6Advice.class, PointcutProfileTest.SameClassBeans.class, PointcutProfileTest.BeanNameAspect.class})
+class PointcutProfileTest {
+
+    @Autowired
+    ProfilingAspectJAutoProxyCreator autoProxyCreator;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    @Qualifier("greeterA")
+    Greeter greeterA;
+
+    @Autowired
+    @Qualifier("greeterB")
+    Greeter greeterB;
+
+    @Test
+    void report() {
+        PointcutProfileReport report = autoProxyCreator.getReport();
+        log.info("{}", report);
+
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        assertThat(report.getProxiedBeans()).contains("orderService");
+
+        PointcutProfileReport.ExpressionStats stats = report.getExpression("hello.aop.order.aop.Pointcuts.orderAndService()");
+        assertThat(stats).isNotNull();
+        assertThat(stats.getMatchedClasses()).isGreaterThanOrEqualTo(1);
+        assertThat(stats.getMatchedMethods()).isGreaterThanOrEqualTo(1);
+
+        orderService.orderItem("itemA");
+    }
+
+    /**
+     * 같은 클래스의 빈이라도 bean(..) 포인트컷의 매칭 결과는 빈마다 다름 (캐시가 앞의 빈 결과를 재사용하지 않음)
+     */
+    @Test
+    void beanPointcutIsEvaluatedPerBean() {
+        assertThat(AopUtils.isAopProxy(greeterA)).isTrue();
+        assertThat(AopUtils.isAopProxy(greeterB)).isFalse();
+        assertThat(greeterA.hello()).isEqualTo("advised hello");
+        assertThat(greeterB.hello()).isEqualTo("hello");
+    }
+
+    static class Greeter {
+        public String hello() {
+            return "hello";
+        }
+    }
+
+    @Configuration
+    static class SameClassBeans {
+        @Bean
+        Greeter greeterA() {
+            return new Greeter();
+        }
+
+        @Bean
+        Greeter greeterB() {
+            return new Greeter();
+        }
+    }
+
+    @Aspect
+    static class BeanNameAspect {
+        @Around("bean(greeterA)")
+        public Object advise(ProceedingJoinPoint joinPoint) throws Throwable {
+            return "advised " + joinPoint.proceed();
+        }
+    }
+}